@@ -0,0 +1,145 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of an artifact search result page, with the nested build and build config revision that the
+ * import needs, through Jackson data binding and through the streaming {@link ArtifactPageReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtifactPageBenchmark {
+
+    private static final TypeReference<Page<Artifact>> ARTIFACT_PAGE = new TypeReference<>() {
+    };
+
+    @Param({ "50", "200" })
+    int pageSize;
+
+    ObjectMapper mapper;
+    JsonFactory factory;
+    byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = new ObjectMapper().findAndRegisterModules();
+        factory = new JsonFactory();
+        ObjectNode page = mapper.createObjectNode();
+        page.put("pageIndex", 0);
+        page.put("pageSize", pageSize);
+        page.put("totalPages", 10);
+        page.put("totalHits", pageSize * 10);
+        ArrayNode content = page.putArray("content");
+        for (int i = 0; i < pageSize; ++i) {
+            content.add(artifact(i));
+        }
+        json = mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Page<Artifact> deserialize() throws Exception {
+        return mapper.readValue(json, ARTIFACT_PAGE);
+    }
+
+    @Benchmark
+    public Page<Artifact> streaming() throws Exception {
+        return ArtifactPageReader.read(factory.createParser(json));
+    }
+
+    private ObjectNode artifact(int i) {
+        String version = "1." + i + ".0.redhat-00001";
+        ObjectNode artifact = mapper.createObjectNode();
+        artifact.put("id", Integer.toString(100000 + i));
+        artifact.put("identifier", "io.quarkus:quarkus-component-" + i + ":pom:" + version);
+        artifact.put("purl", "pkg:maven/io.quarkus/quarkus-component-" + i + "@" + version + "?type=pom");
+        artifact.put("artifactQuality", "NEW");
+        artifact.put("buildCategory", "STANDARD");
+        artifact.put("md5", "0123456789abcdef0123456789abcdef");
+        artifact.put("sha1", "0123456789abcdef0123456789abcdef01234567");
+        artifact.put("sha256", "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef");
+        artifact.put("filename", "quarkus-component-" + i + "-" + version + ".pom");
+        artifact.put("deployPath", "/io/quarkus/quarkus-component-" + i + "/" + version + "/quarkus-component-" + i + "-" + version + ".pom");
+        artifact.put("size", 4096L);
+        artifact.put("creationTime", "2022-04-01T10:15:30Z");
+        artifact.put("modificationTime", "2022-04-01T10:15:30Z");
+        ObjectNode targetRepository = artifact.putObject("targetRepository");
+        targetRepository.put("id", "1");
+        targetRepository.put("temporaryRepo", false);
+        targetRepository.put("identifier", "indy-maven");
+        targetRepository.put("repositoryType", "MAVEN");
+        targetRepository.put("repositoryPath", "/api/content/maven/hosted/pnc-builds/");
+        user(artifact.putObject("creationUser"));
+        user(artifact.putObject("modificationUser"));
+
+        ObjectNode build = artifact.putObject("build");
+        build.put("id", "A" + i);
+        build.put("submitTime", "2022-04-01T09:00:00Z");
+        build.put("startTime", "2022-04-01T09:01:00Z");
+        build.put("endTime", "2022-04-01T09:30:00Z");
+        build.put("progress", "FINISHED");
+        build.put("status", "SUCCESS");
+        build.put("buildContentId", "build-A" + i);
+        build.put("temporaryBuild", false);
+        build.put("scmUrl", "https://code.example.com/quarkusio/quarkus-component-" + i + ".git");
+        build.put("scmRevision", "0123456789abcdef0123456789abcdef01234567");
+        build.put("scmTag", version);
+        build.put("lastUpdateTime", "2022-04-01T09:30:00Z");
+        ObjectNode project = build.putObject("project");
+        project.put("id", Integer.toString(i));
+        project.put("name", "quarkusio/quarkus-component-" + i);
+        ObjectNode scmRepository = build.putObject("scmRepository");
+        scmRepository.put("id", Integer.toString(i));
+        scmRepository.put("internalUrl", "git+ssh://code.example.com/quarkusio/quarkus-component-" + i + ".git");
+        scmRepository.put("externalUrl", "https://github.com/quarkusio/quarkus-component-" + i + ".git");
+        scmRepository.put("preBuildSyncEnabled", true);
+        ObjectNode environment = build.putObject("environment");
+        environment.put("id", "1");
+        environment.put("name", "OpenJDK 11.0; Mvn 3.6.3");
+        environment.put("systemImageId", "builder-rhel-7-j11-mvn3.6.3:1.0.2");
+        environment.put("systemImageRepositoryUrl", "quay.example.com/rh-newcastle");
+        environment.put("systemImageType", "DOCKER_IMAGE");
+        environment.putObject("attributes").put("JDK", "11.0");
+        build.putObject("attributes").put("BREW_BUILD_VERSION", version);
+        user(build.putObject("user"));
+        ObjectNode revision = build.putObject("buildConfigRevision");
+        revision.put("id", Integer.toString(1000 + i));
+        revision.put("rev", 3);
+        revision.put("name", "quarkus-component-" + i);
+        revision.put("buildScript", "mvn deploy -DskipTests -Dquarkus.version=2.8.1.Final");
+        revision.put("scmRevision", version);
+        revision.put("creationTime", "2022-03-01T10:15:30Z");
+        revision.put("modificationTime", "2022-03-01T10:15:30Z");
+        revision.put("buildType", "MVN");
+        revision.put("defaultAlignmentParams", "-DdependencySource=REST -DrepoRemovalBackup=repositories-backup.xml");
+        revision.put("brewPullActive", false);
+        return artifact;
+    }
+
+    private static void user(ObjectNode user) {
+        user.put("id", "42");
+        user.put("username", "newcastle");
+    }
+}
@@ -0,0 +1,98 @@
+package io.quarkus.pnc.importer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Editing a large {@code build-config.yaml}: reading it, adding or replacing a batch of versions and builds, and
+ * rendering it again, which is what an import does to the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildConfigYamlBenchmark {
+
+    @Param({ "100", "1000" })
+    int builds;
+
+    @Param({ "1", "20" })
+    int imports;
+
+    List<String> config;
+    List<List<String>> entries;
+
+    @Setup
+    public void setup() {
+        config = new ArrayList<>();
+        config.add("# generated build config");
+        for (int i = 0; i < builds; ++i) {
+            config.add("#!component-" + i + "-version=1." + i + ".0");
+        }
+        config.add("product:");
+        config.add("  name: Generated Components");
+        config.add("  stage: GA");
+        config.add("builds:");
+        for (int i = 0; i < builds; ++i) {
+            config.add("");
+            config.addAll(entry(i, "1." + i + ".0"));
+        }
+        config.add("");
+        config.add("outputPrefixes:");
+        config.add("  releaseFile: generated-components");
+
+        //half of the imports replace existing entries, the other half are new
+        entries = new ArrayList<>();
+        for (int i = 0; i < imports; ++i) {
+            int index = i % 2 == 0 ? i * builds / Math.max(imports, 1) : builds + i;
+            entries.add(entry(index, "2." + index + ".0"));
+        }
+    }
+
+    @Benchmark
+    public List<String> parseAndRender() {
+        return BuildConfigYaml.parse(config).toLines();
+    }
+
+    @Benchmark
+    public List<String> importBuilds() {
+        BuildConfigYaml yaml = BuildConfigYaml.parse(config);
+        for (int i = 0; i < entries.size(); ++i) {
+            List<String> entry = entries.get(i);
+            String name = BuildConfigYaml.buildName(entry);
+            yaml.setVersion(name.substring(3, name.length() - 3), "2." + i + ".0");
+            yaml.putBuild(entry);
+        }
+        return yaml.toLines();
+    }
+
+    private static List<String> entry(int i, String version) {
+        return List.of(
+                "  - name: \"{{ component-" + i + "-version }}\"",
+                "    project: generated/component-" + i,
+                "    scmUrl: git+ssh://code.example.com/generated/component-" + i + ".git",
+                "    scmRevision: " + version,
+                "    systemImageId: builder-rhel-7-j11-mvn3.6.3:1.0.2",
+                "    buildScript: mvn deploy -DskipTests",
+                "    buildType: MVN",
+                "    dependencies:",
+                "    - {{ \"component-" + Math.max(i - 1, 0) + "-version\" }}",
+                "    alignmentParameters:",
+                "    - -DdependencySource=REST");
+    }
+}
@@ -0,0 +1,84 @@
+package io.quarkus.pnc.importer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searching a catalog of synthetic pom artifacts for an identifier fragment, as {@code import --catalog} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogSearchBenchmark {
+
+    private static final String[] WORDS = { "quarkus", "http", "fs", "utils", "vertx", "core", "netty", "smallrye", "config",
+            "jgit", "client", "server", "reactive", "rest", "jackson", "hibernate", "kafka", "grpc", "security", "mutiny" };
+
+    @Param({ "1000000" })
+    int artifacts;
+
+    @Param({ "fs-utils", "http-core-42", "redhat-00001" })
+    String fragment;
+
+    Path file;
+    ArtifactCatalog catalog;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(1);
+        List<ArtifactCatalog.Entry> entries = new ArrayList<>(artifacts);
+        for (int i = 0; i < artifacts; ++i) {
+            String name = WORDS[random.nextInt(WORDS.length)] + "-" + WORDS[random.nextInt(WORDS.length)] + "-" + random.nextInt(500);
+            String identifier = "io.quarkus:" + name + ":pom:" + random.nextInt(3) + "." + random.nextInt(20) + "." + random.nextInt(10)
+                    + ".redhat-0000" + (1 + random.nextInt(9));
+            entries.add(new ArtifactCatalog.Entry(Integer.toString(i), identifier, Integer.toString(i),
+                    "https://github.com/quarkusio/" + name + ".git", identifier.substring(identifier.lastIndexOf(':') + 1), "NEW",
+                    Instant.ofEpochSecond(1500000000L + random.nextInt(200000000)), true));
+        }
+        file = Files.createTempFile("catalog", ".bin");
+        ArtifactCatalog.write(file, entries, null);
+        catalog = ArtifactCatalog.open(file);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int[] index() {
+        return catalog.find(fragment, 1000);
+    }
+
+    @Benchmark
+    public int scan() {
+        int found = 0;
+        for (int i = 0; i < catalog.size() && found < 1000; ++i) {
+            if (catalog.identifier(i).contains(fragment)) {
+                ++found;
+            }
+        }
+        return found;
+    }
+}
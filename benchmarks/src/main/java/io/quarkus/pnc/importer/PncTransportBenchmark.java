@@ -0,0 +1,144 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fetching and reading a page of 200 artifacts from a local stub of PNC, with and without gzip and connection reuse.
+ * <p>
+ * Over loopback compression only costs CPU, so the stub can limit how fast it sends to {@code linkMbps} to show
+ * what a real network to PNC looks like.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+//without TCP_NODELAY small responses on a kept alive connection wait for delayed ACKs
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class PncTransportBenchmark {
+
+    private static final int CHUNK = 16 * 1024;
+
+    @Param({ "false", "true" })
+    boolean gzip;
+
+    @Param({ "false", "true" })
+    boolean keepAlive;
+
+    @Param({ "0", "50" })
+    int linkMbps;
+
+    HttpServer server;
+    ExecutorService executor;
+    URL url;
+    JsonFactory factory;
+    byte[] json;
+    byte[] compressed;
+
+    @Setup
+    public void setup() throws Exception {
+        ArtifactPageBenchmark page = new ArtifactPageBenchmark();
+        page.pageSize = 200;
+        page.setup();
+        json = page.json;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        }
+        compressed = out.toByteArray();
+        System.out.println("Page is " + json.length + " bytes, " + compressed.length + " bytes compressed");
+
+        factory = new JsonFactory();
+        executor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        url = new URL("http://localhost:" + server.getAddress().getPort() + "/artifacts?pageIndex=0&pageSize=200");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Page<Artifact> fetch() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (gzip) {
+            connection.setRequestProperty("Accept-Encoding", PncCompressionFilter.GZIP);
+        }
+        if (!keepAlive) {
+            connection.setRequestProperty("Connection", "close");
+        }
+        try (InputStream in = PncCompressionFilter.isGzip(connection.getContentEncoding())
+                ? new GZIPInputStream(connection.getInputStream())
+                : connection.getInputStream()) {
+            Page<Artifact> result = ArtifactPageReader.read(factory.createParser(in));
+            //drain the stream so the connection can go back to the pool
+            in.transferTo(OutputStream.nullOutputStream());
+            return result;
+        } finally {
+            if (!keepAlive) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] body = json;
+            if (acceptEncoding != null && acceptEncoding.contains(PncCompressionFilter.GZIP)) {
+                body = compressed;
+                exchange.getResponseHeaders().add("Content-Encoding", PncCompressionFilter.GZIP);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream out = exchange.getResponseBody();
+            for (int pos = 0; pos < body.length; pos += CHUNK) {
+                int length = Math.min(CHUNK, body.length - pos);
+                out.write(body, pos, length);
+                if (linkMbps > 0) {
+                    //the time the chunk would take to send over the link
+                    long nanos = length * 8L * 1000 / linkMbps;
+                    TimeUnit.NANOSECONDS.sleep(nanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+}
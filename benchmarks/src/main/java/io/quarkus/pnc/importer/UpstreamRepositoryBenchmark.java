@@ -0,0 +1,153 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tag matching and peeling, and branch matching, against a synthetic local repository with a long main line, a release branch every
+ * {@value #RELEASE_INTERVAL} commits and an annotated tag on each release.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpstreamRepositoryBenchmark {
+
+    static final int RELEASE_INTERVAL = 50;
+    static final int RELEASE_COMMITS = 5;
+
+    @Param({ "1000", "10000" })
+    int commits;
+
+    Path directory;
+    Git git;
+    String url;
+    List<Ref> branches;
+    List<Ref> tags;
+    ObjectId taggedCommit;
+    String tagHint;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("upstream-benchmark");
+        git = Git.init().setBare(true).setDirectory(directory.toFile()).call();
+        url = directory.toUri().toString();
+        Repository repository = git.getRepository();
+        PersonIdent ident = new PersonIdent("Benchmark", "benchmark@example.com");
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId tree = inserter.insert(Constants.OBJ_TREE, new byte[0]);
+            ObjectId head = null;
+            int release = 0;
+            for (int i = 0; i < commits; ++i) {
+                head = commit(inserter, tree, ident, head, "main " + i);
+                if (i % RELEASE_INTERVAL == RELEASE_INTERVAL - 1) {
+                    String version = "1." + release++;
+                    ObjectId releaseHead = head;
+                    for (int j = 0; j < RELEASE_COMMITS; ++j) {
+                        releaseHead = commit(inserter, tree, ident, releaseHead, version + " fix " + j);
+                    }
+                    updateRef(repository, inserter, Constants.R_HEADS + version, releaseHead);
+                    TagBuilder tag = new TagBuilder();
+                    tag.setObjectId(releaseHead, Constants.OBJ_COMMIT);
+                    tag.setTag(version + ".0");
+                    tag.setTagger(ident);
+                    tag.setMessage(version + ".0");
+                    updateRef(repository, inserter, Constants.R_TAGS + version + ".0", inserter.insert(tag));
+                    //tag a release from the middle of the history, which is the usual case
+                    if (release == Math.max(1, commits / RELEASE_INTERVAL / 2)) {
+                        taggedCommit = releaseHead;
+                        tagHint = version + ".0";
+                    }
+                }
+            }
+            updateRef(repository, inserter, Constants.R_HEADS + "main", head);
+        }
+        branches = git.branchList().call();
+        tags = git.tagList().call();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        git.close();
+        FileUtils.delete(directory.toFile(), FileUtils.RECURSIVE | FileUtils.RETRY);
+    }
+
+    @Benchmark
+    public List<Ref> matchTags() throws Exception {
+        try (var upstream = UpstreamRepository.mirror(url, directory.resolve("unused"), () -> {
+        })) {
+            List<Ref> possibleTags = new ArrayList<>();
+            for (var ref : upstream.tags()) {
+                if (ref.getName().contains(tagHint)) {
+                    possibleTags.add(ref);
+                }
+            }
+            return possibleTags;
+        }
+    }
+
+    @Benchmark
+    public Map<String, ObjectId> peelTags() throws Exception {
+        return TagResolver.resolve(git.getRepository(), tags);
+    }
+
+    @Benchmark
+    public List<Ref> branchesContaining() throws Exception {
+        return ReachabilityIndex.branchesContaining(git.getRepository(), taggedCommit, branches);
+    }
+
+    private static ObjectId commit(ObjectInserter inserter, ObjectId tree, PersonIdent ident, ObjectId parent, String message)
+            throws IOException {
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        if (parent != null) {
+            commit.setParentId(parent);
+        }
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(message);
+        return inserter.insert(commit);
+    }
+
+    private static void updateRef(Repository repository, ObjectInserter inserter, String name, ObjectId id) throws IOException {
+        inserter.flush();
+        RefUpdate update = repository.updateRef(name);
+        update.setNewObjectId(id);
+        update.setForceUpdate(true);
+        RefUpdate.Result result = update.update();
+        if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED) {
+            throw new IOException("Failed to update " + name + ": " + result);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+#
+# Compares the startup time and peak RSS of the JVM and native builds of the importer, running the same import
+# against PNC responses recorded with `import --record`.
+#
+# Usage: startup.sh <recording dir> <build-config checkout> <selections file> <artifact>...
+#
+# The selections file contains the answers to the prompts, one per line, as they would be typed in. Each run works
+# on a fresh copy of the checkout. Build both executables first:
+#
+#   ./mvnw package -DskipTests
+#   ./mvnw package -DskipTests -Pnative
+#
+set -euo pipefail
+
+if [ $# -lt 4 ]; then
+    sed -n '3,13p' "$0"
+    exit 1
+fi
+
+RECORDING=$1
+CHECKOUT=$2
+SELECTIONS=$3
+shift 3
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JVM=(java -jar "$ROOT/target/quarkus-app/quarkus-run.jar")
+NATIVE=("$(ls "$ROOT"/target/*-runner)")
+RUNS=${RUNS:-5}
+PORT=${PORT:-8090}
+WORK=$(mktemp -d)
+
+PNC_URL="http://localhost:$PORT" "${JVM[@]}" replay-server -d "$RECORDING" --port "$PORT" > "$WORK/replay.log" 2>&1 &
+REPLAY=$!
+trap 'kill $REPLAY; rm -rf "$WORK"' EXIT
+sleep 3
+
+run() {
+    local name=$1
+    shift
+    local total=0 max_rss=0
+    #the first run fills the upstream Git mirrors, so it is not counted
+    for i in $(seq 0 "$RUNS"); do
+        rm -rf "$WORK/checkout"
+        cp -r "$CHECKOUT" "$WORK/checkout"
+        PNC_URL="http://localhost:$PORT" /usr/bin/time -f "%e %M" -o "$WORK/time" "$@" import --no-cache \
+            -p "$WORK/checkout" "${ARTIFACTS[@]}" < "$SELECTIONS" > "$WORK/$name.log" 2>&1
+        if [ "$i" -gt 0 ]; then
+            read -r elapsed rss < "$WORK/time"
+            total=$(echo "$total + $elapsed" | bc)
+            if [ "$rss" -gt "$max_rss" ]; then
+                max_rss=$rss
+            fi
+        fi
+    done
+    printf "%-8s %10.2f %12d\n" "$name" "$(echo "scale=3; $total / $RUNS" | bc)" "$((max_rss / 1024))"
+}
+
+ARTIFACTS=("$@")
+printf "%-8s %10s %12s\n" "" "Time (s)" "Max RSS (MB)"
+run jvm "${JVM[@]}"
+run native "${NATIVE[@]}"
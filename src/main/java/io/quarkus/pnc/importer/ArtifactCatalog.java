@@ -0,0 +1,342 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactQuality;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local copy of the pom artifacts PNC has built, so candidates can be found without a query to PNC. It is kept
+ * up to date by {@code catalog sync}.
+ * <p>
+ * The catalog is a single file that is memory mapped when opened. It starts with a header (magic, version, the
+ * watermark of the last sync and the number of artifacts and strings), then a fixed size record for each artifact,
+ * then the offsets of the strings and the UTF-8 bytes of the strings, then the {@link TrigramIndex} of the
+ * identifiers. Records refer to strings by index, so the SCM URLs and qualities that are shared by many artifacts are
+ * only stored once. Strings are only decoded when asked for.
+ * <p>
+ * Artifacts are stored newest build first, which is the order searches return them in.
+ */
+public final class ArtifactCatalog {
+
+    private static final int MAGIC = 0x504e4343;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    //id, identifier, build id, SCM URL, SCM tag and quality strings, the build start time and the flags
+    private static final int RECORD_SIZE = 6 * 4 + 8 + 4;
+    private static final int NONE = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int PRE_BUILD_SYNC = 1;
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing((Entry e) -> e.startTime,
+            Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final ArtifactCatalog EMPTY = new ArtifactCatalog(ByteBuffer.allocate(0), null, 0, 0, 0, null);
+
+    private final ByteBuffer buffer;
+    private final Instant watermark;
+    private final int size;
+    private final int offsetsStart;
+    private final int stringsStart;
+    private final TrigramIndex index;
+
+    private ArtifactCatalog(ByteBuffer buffer, Instant watermark, int size, int offsetsStart, int stringsStart, TrigramIndex index) {
+        this.buffer = buffer;
+        this.watermark = watermark;
+        this.size = size;
+        this.offsetsStart = offsetsStart;
+        this.stringsStart = stringsStart;
+        this.index = index;
+    }
+
+    /**
+     * Maps the catalog file, or returns an empty catalog if it does not exist yet.
+     */
+    public static ArtifactCatalog open(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return EMPTY;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " is not an artifact catalog, or was written by a different version, run catalog sync --full");
+        }
+        long watermark = buffer.getLong(8);
+        int size = buffer.getInt(16);
+        int strings = buffer.getInt(20);
+        int offsetsStart = HEADER_SIZE + size * RECORD_SIZE;
+        int stringsStart = offsetsStart + (strings + 1) * 4;
+        TrigramIndex index = new TrigramIndex(buffer, stringsStart + buffer.getInt(offsetsStart + strings * 4));
+        return new ArtifactCatalog(buffer, watermark == NO_TIME ? null : Instant.ofEpochMilli(watermark), size, offsetsStart, stringsStart, index);
+    }
+
+    /**
+     * The newest creation or modification time of the artifacts in the catalog, {@code null} if it has never been
+     * synced.
+     */
+    public Instant watermark() {
+        return watermark;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String id(int artifact) {
+        return string(artifact, 0);
+    }
+
+    public String identifier(int artifact) {
+        return string(artifact, 1);
+    }
+
+    public String buildId(int artifact) {
+        return string(artifact, 2);
+    }
+
+    public String scmUrl(int artifact) {
+        return string(artifact, 3);
+    }
+
+    public String scmTag(int artifact) {
+        return string(artifact, 4);
+    }
+
+    public ArtifactQuality quality(int artifact) {
+        String quality = string(artifact, 5);
+        return quality == null ? null : ArtifactQuality.valueOf(quality);
+    }
+
+    public Instant startTime(int artifact) {
+        long time = buffer.getLong(record(artifact) + 6 * 4);
+        return time == NO_TIME ? null : Instant.ofEpochMilli(time);
+    }
+
+    public boolean preBuildSyncEnabled(int artifact) {
+        return (buffer.getInt(record(artifact) + 6 * 4 + 8) & PRE_BUILD_SYNC) != 0;
+    }
+
+    /**
+     * The artifact as returned by a PNC search, with only the fields that are in the catalog.
+     */
+    public Artifact artifact(int artifact) {
+        return Artifact.builder()
+                .id(id(artifact))
+                .identifier(identifier(artifact))
+                .artifactQuality(quality(artifact))
+                .build(Build.builder()
+                        .id(buildId(artifact))
+                        .startTime(startTime(artifact))
+                        .scmTag(scmTag(artifact))
+                        .scmRepository(SCMRepository.builder()
+                                .externalUrl(scmUrl(artifact))
+                                .preBuildSyncEnabled(preBuildSyncEnabled(artifact))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Finds the artifacts whose identifier contains the given text, newest build first.
+     */
+    public List<Artifact> search(String text, int maxResults) {
+        List<Artifact> result = new ArrayList<>();
+        for (int artifact : find(text, maxResults)) {
+            result.add(artifact(artifact));
+        }
+        return result;
+    }
+
+    /**
+     * The indexes of the artifacts whose identifier contains the given text, newest build first.
+     */
+    int[] find(String text, int maxResults) {
+        if (size == 0) {
+            return new int[0];
+        }
+        byte[] fragment = text.getBytes(StandardCharsets.UTF_8);
+        int[] found = index.search(fragment, i -> identifierContains(i, fragment), maxResults);
+        if (found != null) {
+            return found;
+        }
+        //too short for the index, the scan is in the same order so it stops once it has enough
+        int[] matches = new int[Math.min(size, maxResults)];
+        int count = 0;
+        for (int i = 0; i < size && count < matches.length; ++i) {
+            if (identifierContains(i, fragment)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private boolean identifierContains(int artifact, byte[] fragment) {
+        int string = buffer.getInt(record(artifact) + 4);
+        if (string == NONE) {
+            return false;
+        }
+        int start = stringsStart + buffer.getInt(offsetsStart + string * 4);
+        int end = stringsStart + buffer.getInt(offsetsStart + (string + 1) * 4);
+        outer: for (int pos = start; pos <= end - fragment.length; ++pos) {
+            for (int i = 0; i < fragment.length; ++i) {
+                if (buffer.get(pos + i) != fragment[i]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * All the artifacts in the catalog, for merging with the results of a sync.
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            entries.add(new Entry(id(i), identifier(i), buildId(i), scmUrl(i), scmTag(i), string(i, 5), startTime(i), preBuildSyncEnabled(i)));
+        }
+        return entries;
+    }
+
+    private int record(int artifact) {
+        if (artifact < 0 || artifact >= size) {
+            throw new IndexOutOfBoundsException(artifact);
+        }
+        return HEADER_SIZE + artifact * RECORD_SIZE;
+    }
+
+    private String string(int artifact, int field) {
+        int index = buffer.getInt(record(artifact) + field * 4);
+        if (index == NONE) {
+            return null;
+        }
+        int start = buffer.getInt(offsetsStart + index * 4);
+        int end = buffer.getInt(offsetsStart + (index + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringsStart + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a new catalog, replacing the file atomically so a catalog that is being read is not affected.
+     */
+    public static void write(Path file, Collection<Entry> unsorted, Instant watermark) throws IOException {
+        List<Entry> entries = new ArrayList<>(unsorted);
+        entries.sort(NEWEST_FIRST);
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] records = new int[entries.size() * 6];
+        int pos = 0;
+        for (var entry : entries) {
+            for (var value : new String[] { entry.id, entry.identifier, entry.buildId, entry.scmUrl, entry.scmTag, entry.quality }) {
+                records[pos++] = value == null ? NONE : indexes.computeIfAbsent(value, v -> {
+                    strings.add(v.getBytes(StandardCharsets.UTF_8));
+                    return strings.size() - 1;
+                });
+            }
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, "catalog", ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark == null ? NO_TIME : watermark.toEpochMilli());
+            out.writeInt(entries.size());
+            out.writeInt(strings.size());
+            pos = 0;
+            for (var entry : entries) {
+                for (int i = 0; i < 6; ++i) {
+                    out.writeInt(records[pos++]);
+                }
+                out.writeLong(entry.startTime == null ? NO_TIME : entry.startTime.toEpochMilli());
+                out.writeInt(entry.preBuildSyncEnabled ? PRE_BUILD_SYNC : 0);
+            }
+            int offset = 0;
+            for (var string : strings) {
+                out.writeInt(offset);
+                offset += string.length;
+            }
+            out.writeInt(offset);
+            for (var string : strings) {
+                out.write(string);
+            }
+            List<byte[]> identifiers = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); ++i) {
+                int identifier = records[i * 6 + 1];
+                identifiers.add(identifier == NONE ? new byte[0] : strings.get(identifier));
+            }
+            TrigramIndex.write(out, identifiers);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * An artifact as it is stored in the catalog.
+     */
+    public static final class Entry {
+        final String id;
+        final String identifier;
+        final String buildId;
+        final String scmUrl;
+        final String scmTag;
+        final String quality;
+        final Instant startTime;
+        final boolean preBuildSyncEnabled;
+
+        Entry(String id, String identifier, String buildId, String scmUrl, String scmTag, String quality, Instant startTime,
+                boolean preBuildSyncEnabled) {
+            this.id = id;
+            this.identifier = identifier;
+            this.buildId = buildId;
+            this.scmUrl = scmUrl;
+            this.scmTag = scmTag;
+            this.quality = quality;
+            this.startTime = startTime;
+            this.preBuildSyncEnabled = preBuildSyncEnabled;
+        }
+
+        public static Entry of(Artifact artifact) {
+            var build = artifact.getBuild();
+            var repository = build == null ? null : build.getScmRepository();
+            return new Entry(artifact.getId(), artifact.getIdentifier(),
+                    build == null ? null : build.getId(),
+                    repository == null ? null : repository.getExternalUrl(),
+                    build == null ? null : build.getScmTag(),
+                    artifact.getArtifactQuality() == null ? null : artifact.getArtifactQuality().name(),
+                    build == null ? null : build.getStartTime(),
+                    repository != null && Boolean.TRUE.equals(repository.getPreBuildSyncEnabled()));
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactQuality;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRevisionRef;
+import io.quarkus.pnc.importer.rest.BuildType;
+import io.quarkus.pnc.importer.rest.Environment;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a page of artifact search results straight from the response stream, keeping only the fields the import
+ * uses. Search pages can have hundreds of artifacts, each with the full build, environment, build config revision,
+ * users and attribute maps, and most of that would otherwise be turned into objects only to be thrown away.
+ * <p>
+ * The artifacts returned only have their id, identifier, checksums, quality, creation and modification time, and a
+ * build with its id, start time, SCM tag and revision, SCM repository, build config revision (id, build script and
+ * build type) and system image. Everything else is skipped without being parsed into objects, and is {@code null} in the result.
+ */
+@Consumes(MediaType.APPLICATION_JSON)
+public class ArtifactPageReader implements MessageBodyReader<Page<Artifact>> {
+
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == Page.class && genericType instanceof ParameterizedType
+                && ((ParameterizedType) genericType).getActualTypeArguments()[0] == Artifact.class;
+    }
+
+    @Override
+    public Page<Artifact> readFrom(Class<Page<Artifact>> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(entityStream)) {
+            return read(parser);
+        }
+    }
+
+    static Page<Artifact> read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a page of artifacts but got " + parser.currentToken());
+        }
+        Page<Artifact> page = new Page<>();
+        List<Artifact> content = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "pageIndex":
+                    page.setPageIndex(parser.getValueAsInt());
+                    break;
+                case "pageSize":
+                    page.setPageSize(parser.getValueAsInt());
+                    break;
+                case "totalPages":
+                    page.setTotalPages(parser.getValueAsInt());
+                    break;
+                case "totalHits":
+                    page.setTotalHits(parser.getValueAsInt());
+                    break;
+                case "content":
+                    if (token == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            content.add(artifact(parser));
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        page.setContent(content);
+        return page;
+    }
+
+    private static Artifact artifact(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        var artifact = Artifact.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    artifact.id(text(parser));
+                    break;
+                case "identifier":
+                    artifact.identifier(text(parser));
+                    break;
+                case "md5":
+                    artifact.md5(text(parser));
+                    break;
+                case "sha1":
+                    artifact.sha1(text(parser));
+                    break;
+                case "sha256":
+                    artifact.sha256(text(parser));
+                    break;
+                case "artifactQuality":
+                    String quality = text(parser);
+                    artifact.artifactQuality(quality == null ? null : ArtifactQuality.valueOf(quality));
+                    break;
+                case "creationTime":
+                    artifact.creationTime(instant(parser));
+                    break;
+                case "modificationTime":
+                    artifact.modificationTime(instant(parser));
+                    break;
+                case "build":
+                    artifact.build(build(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return artifact.build();
+    }
+
+    private static Build build(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        var build = Build.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    build.id(text(parser));
+                    break;
+                case "startTime":
+                    build.startTime(instant(parser));
+                    break;
+                case "scmTag":
+                    build.scmTag(text(parser));
+                    break;
+                case "scmRevision":
+                    build.scmRevision(text(parser));
+                    break;
+                case "scmRepository":
+                    build.scmRepository(scmRepository(parser));
+                    break;
+                case "buildConfigRevision":
+                    build.buildConfigRevision(buildConfigRevision(parser));
+                    break;
+                case "environment":
+                    build.environment(environment(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return build.build();
+    }
+
+    private static SCMRepository scmRepository(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        var repository = SCMRepository.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    repository.id(text(parser));
+                    break;
+                case "internalUrl":
+                    repository.internalUrl(text(parser));
+                    break;
+                case "externalUrl":
+                    repository.externalUrl(text(parser));
+                    break;
+                case "preBuildSyncEnabled":
+                    repository.preBuildSyncEnabled(parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsBoolean());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return repository.build();
+    }
+
+    private static BuildConfigurationRevisionRef buildConfigRevision(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        var revision = BuildConfigurationRevisionRef.refBuilder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    revision.id(text(parser));
+                    break;
+                case "buildScript":
+                    revision.buildScript(text(parser));
+                    break;
+                case "buildType":
+                    String buildType = text(parser);
+                    revision.buildType(buildType == null ? null : BuildType.valueOf(buildType));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return revision.build();
+    }
+
+    private static Environment environment(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        var environment = Environment.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("systemImageId")) {
+                environment.systemImageId(text(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return environment.build();
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    private static Instant instant(JsonParser parser) throws IOException {
+        String value = text(parser);
+        return value == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value, Instant::from);
+    }
+}
@@ -0,0 +1,241 @@
+package io.quarkus.pnc.importer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An editable view of a CPaaS {@code build-config.yaml}.
+ * <p>
+ * The file is only parsed as far as is needed to edit it: the {@code #!name=value} version block and the entries of
+ * the {@code builds:} list are indexed by name when the file is read, everything else is kept line by line as it was.
+ * Adding or updating a version or a build is a map operation, and the file is only rendered once when it is written.
+ * <p>
+ * New builds are added at the start of the {@code builds:} list, and new versions at the end of the version block.
+ * If a build name appears more than once in the file only the first entry is kept.
+ */
+public class BuildConfigYaml {
+
+    static final String VERSION_PREFIX = "#!";
+    static final String BUILDS = "builds:";
+
+    private final List<String> header = new ArrayList<>();
+    private final Map<String, String> versions = new LinkedHashMap<>();
+    private final List<String> beforeBuilds = new ArrayList<>();
+    private final List<String> buildsPreamble = new ArrayList<>();
+    private final Map<String, List<String>> addedBuilds = new LinkedHashMap<>();
+    private final Map<String, List<String>> builds = new LinkedHashMap<>();
+    private final List<String> footer = new ArrayList<>();
+    private boolean hasBuildsSection;
+
+    public static BuildConfigYaml read(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    static BuildConfigYaml parse(List<String> lines) {
+        BuildConfigYaml yaml = new BuildConfigYaml();
+        int i = 0;
+        int size = lines.size();
+        boolean hasVersions = false;
+        for (var line : lines) {
+            if (line.startsWith(VERSION_PREFIX)) {
+                hasVersions = true;
+                break;
+            }
+        }
+        if (hasVersions) {
+            while (!lines.get(i).startsWith(VERSION_PREFIX)) {
+                yaml.header.add(lines.get(i++));
+            }
+            while (i < size && lines.get(i).startsWith(VERSION_PREFIX)) {
+                String line = lines.get(i++).substring(VERSION_PREFIX.length());
+                int pos = line.indexOf('=');
+                if (pos == -1) {
+                    yaml.versions.put(line, null);
+                } else {
+                    yaml.versions.putIfAbsent(line.substring(0, pos), line.substring(pos + 1));
+                }
+            }
+        }
+        while (i < size && !lines.get(i).equals(BUILDS)) {
+            yaml.beforeBuilds.add(lines.get(i++));
+        }
+        if (i == size) {
+            return yaml;
+        }
+        yaml.hasBuildsSection = true;
+        i++;
+        int entryIndent = -1;
+        List<String> current = null;
+        for (; i < size; ++i) {
+            String line = lines.get(i);
+            String trimmed = line.trim();
+            int indent = line.length() - line.stripLeading().length();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                if (entryIndent == -1 && trimmed.startsWith("- ")) {
+                    entryIndent = indent;
+                }
+                if (indent < entryIndent || (indent == entryIndent && !trimmed.startsWith("-")) || (entryIndent == -1 && indent == 0)) {
+                    //the next top level key, the end of the builds section
+                    break;
+                }
+                if (indent == entryIndent) {
+                    yaml.finishBuild(current, false);
+                    current = new ArrayList<>();
+                }
+            }
+            if (current == null) {
+                yaml.buildsPreamble.add(line);
+            } else {
+                current.add(line);
+            }
+        }
+        yaml.finishBuild(current, false);
+        for (; i < size; ++i) {
+            yaml.footer.add(lines.get(i));
+        }
+        return yaml;
+    }
+
+    public boolean hasVersion(String name) {
+        return versions.containsKey(name);
+    }
+
+    public Map<String, String> getVersions() {
+        return Collections.unmodifiableMap(versions);
+    }
+
+    /**
+     * Sets the value of a version, adding it if it does not exist yet.
+     */
+    public void setVersion(String name, String value) {
+        versions.put(name, value);
+    }
+
+    public boolean hasBuild(String name) {
+        return builds.containsKey(name) || addedBuilds.containsKey(name);
+    }
+
+    /**
+     * Adds a build entry, or replaces the existing entry with the same name.
+     *
+     * @param lines the lines of the entry, the first of which starts the list item
+     * @return <code>true</code> if an existing entry was replaced
+     */
+    public boolean putBuild(List<String> lines) {
+        return finishBuild(new ArrayList<>(lines), true);
+    }
+
+    private boolean finishBuild(List<String> lines, boolean add) {
+        if (lines == null) {
+            return false;
+        }
+        //blank lines between entries are added back when the file is written
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isBlank()) {
+            lines.remove(lines.size() - 1);
+        }
+        String name = buildName(lines);
+        if (!add) {
+            builds.putIfAbsent(name, lines);
+            return false;
+        }
+        if (builds.containsKey(name)) {
+            builds.put(name, lines);
+            return true;
+        }
+        return addedBuilds.put(name, lines) != null;
+    }
+
+    static String buildName(List<String> lines) {
+        for (var line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("- ")) {
+                trimmed = trimmed.substring(2).trim();
+            }
+            if (trimmed.startsWith("name:")) {
+                String name = trimmed.substring("name:".length()).trim();
+                if (name.length() > 1 && (name.startsWith("\"") && name.endsWith("\"") || name.startsWith("'") && name.endsWith("'"))) {
+                    name = name.substring(1, name.length() - 1);
+                }
+                return name;
+            }
+        }
+        return String.join("\n", lines);
+    }
+
+    List<String> toLines() {
+        List<String> lines = new ArrayList<>(header);
+        for (var version : versions.entrySet()) {
+            lines.add(VERSION_PREFIX + version.getKey() + (version.getValue() == null ? "" : "=" + version.getValue()));
+        }
+        lines.addAll(beforeBuilds);
+        if (!hasBuildsSection && addedBuilds.isEmpty()) {
+            return lines;
+        }
+        lines.add(BUILDS);
+        if (buildsPreamble.stream().allMatch(String::isBlank)) {
+            for (var entry : addedBuilds.values()) {
+                lines.add("");
+                lines.addAll(entry);
+            }
+            for (var entry : builds.values()) {
+                lines.add("");
+                lines.addAll(entry);
+            }
+        } else {
+            //comments or other content before the first entry, keep them in front
+            lines.addAll(buildsPreamble);
+            for (var entry : addedBuilds.values()) {
+                lines.addAll(entry);
+                lines.add("");
+            }
+            for (var entry : builds.values()) {
+                lines.addAll(entry);
+                lines.add("");
+            }
+        }
+        if (!footer.isEmpty()) {
+            if (!lines.get(lines.size() - 1).isBlank()) {
+                lines.add("");
+            }
+            lines.addAll(footer);
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the file atomically, the new content is written to a temporary file which is then moved over the
+     * original.
+     */
+    public void write(Path file) throws IOException {
+        Path temp = writeTemporary(file);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the new content to a temporary file next to the given one, for the caller to move over it.
+     *
+     * @return the temporary file
+     */
+    public Path writeTemporary(Path file) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, toLines(), StandardCharsets.UTF_8);
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.BuildConfiguration;
+import io.quarkus.pnc.importer.rest.PageParameters;
+import io.quarkus.pnc.importer.rest.SwaggerConstants;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the builds to import and works out the entries for {@code build-config.yaml} and
+ * {@code upstream_sources.yml}. This is shared by the {@code import} command and the REST endpoints of the
+ * {@code serve} command.
+ */
+@ApplicationScoped
+public class BuildImporter {
+
+    /**
+     * TODO: this should be read from the file
+     */
+    private static final String DEFAULT_SYSTEM_IMAGE = "builder-rhel-7-j11.0.11-9-mvn3.6.3-gradle7.0.2:1.0.6";
+
+    /**
+     * How many checksums are looked up in one query, this keeps the URL to a few kilobytes.
+     */
+    private static final int CHECKSUM_BATCH_SIZE = 50;
+
+    @Inject
+    PncClient pncClient;
+
+    @Inject
+    GitMirrorCache gitMirrorCache;
+
+    @Inject
+    Timings timings;
+
+    /**
+     * How many commits to look back from the commit PNC built to find the upstream tag, see
+     * {@link #tagFromInternalBuild}.
+     */
+    @ConfigProperty(name = "importer.git.internal-window", defaultValue = "50")
+    int internalWindow;
+
+    @ConfigProperty(name = "importer.catalog.file")
+    String catalogFile;
+
+    private ArtifactCatalog catalog;
+
+    /**
+     * Searches PNC for the pom artifacts matching the identifier that have a build, newest build first. The
+     * cheapest query for the identifier is run first, see {@link QueryPlanner}.
+     */
+    public List<Artifact> findCandidates(String identifier, int maxResults) {
+        for (var query : QueryPlanner.plan(identifier)) {
+            var possible = findCandidates(query, identifier, maxResults);
+            if (!possible.isEmpty()) {
+                return possible;
+            }
+        }
+        return List.of();
+    }
+
+    private List<Artifact> findCandidates(Rsql query, String identifier, int maxResults) {
+        var results = searchArtifacts(query, maxResults);
+        List<Artifact> possible = new ArrayList<>();
+        while (results.hasNext()) {
+            var artifact = results.next();
+            if (artifact.getBuild() == null) {
+                continue;
+            }
+            //we only display the pom artifacts, so there is not heaps of double ups
+            //this is already filtered by the query, but is checked again in case PNC ignores part of it
+            if (!artifact.getIdentifier().contains(":pom:")) {
+                continue;
+            }
+            possible.add(artifact);
+        }
+        if (results.isTruncated()) {
+            Import.print("Only the first " + maxResults + " results were searched for " + identifier + ", increase the maximum number of results to search more");
+        }
+        return possible;
+    }
+
+    /**
+     * Finds the candidates in the local {@link ArtifactCatalog} instead of searching PNC. The artifacts returned only
+     * have the fields that are in the catalog, the selected one has to be fetched from PNC to import it.
+     */
+    public List<Artifact> findCandidatesInCatalog(String identifier, int maxResults) {
+        List<Artifact> possible = catalog().search(identifier, maxResults + 1);
+        if (possible.size() > maxResults) {
+            Import.print("Only the first " + maxResults + " results were searched for " + identifier + ", increase the maximum number of results to search more");
+            possible = possible.subList(0, maxResults);
+        }
+        return possible;
+    }
+
+    /**
+     * Finds the artifacts with a build that have the same checksums as the given files. The files are looked up by
+     * SHA-256 in batches with an {@code =in=} query, and all the batches are sent at once. The MD5 and SHA-1 are
+     * checked as well, to guard against a bad record in PNC.
+     *
+     * @return the artifacts for each file, newest build first, in the same order as the files
+     */
+    public Map<Checksums, List<Artifact>> findByChecksums(List<Checksums> files) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(files.stream().map(f -> f.sha256).collect(Collectors.toList())));
+        List<PageIterator<Artifact>> batches = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += CHECKSUM_BATCH_SIZE) {
+            var batch = distinct.subList(i, Math.min(i + CHECKSUM_BATCH_SIZE, distinct.size()));
+            //the same binary can be in any number of builds, so every batch is read to the end
+            batches.add(searchArtifacts(Rsql.in("sha256", batch).and(Rsql.isNull("build", false)), Integer.MAX_VALUE));
+        }
+        Map<String, List<Artifact>> bySha256 = new HashMap<>();
+        for (var results : batches) {
+            while (results.hasNext()) {
+                var artifact = results.next();
+                if (artifact.getBuild() != null && artifact.getSha256() != null) {
+                    bySha256.computeIfAbsent(artifact.getSha256().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(artifact);
+                }
+            }
+        }
+        Map<Checksums, List<Artifact>> found = new LinkedHashMap<>();
+        for (var file : files) {
+            found.put(file, bySha256.getOrDefault(file.sha256, List.of()).stream()
+                    .filter(a -> a.getMd5() == null || a.getMd5().equalsIgnoreCase(file.md5))
+                    .filter(a -> a.getSha1() == null || a.getSha1().equalsIgnoreCase(file.sha1))
+                    .collect(Collectors.toList()));
+        }
+        return found;
+    }
+
+    private synchronized ArtifactCatalog catalog() {
+        if (catalog == null) {
+            Path file = Path.of(catalogFile);
+            if (!Files.isRegularFile(file)) {
+                throw new RuntimeException("There is no artifact catalog at " + file + ", run catalog sync first");
+            }
+            try {
+                catalog = ArtifactCatalog.open(file);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * The query used to find the artifacts a build can be imported from. Only pom artifacts that were built by PNC
+     * are returned, as the jars, sources and javadoc of the same GAV all point at the same build.
+     */
+    static Rsql candidateQuery(String artifact) {
+        return Rsql.like("identifier", "%" + artifact + "%")
+                .and(Rsql.like("identifier", "%:pom:%"))
+                .and(Rsql.isNull("build", false));
+    }
+
+    private PageIterator<Artifact> searchArtifacts(Rsql query, int maxResults) {
+        return new PageIterator<>(pageIndex -> {
+            PageParameters pageParams = new PageParameters();
+            pageParams.setPageIndex(pageIndex);
+            pageParams.setPageSize(SwaggerConstants.MAX_PAGE_SIZE);
+            query.applyTo(pageParams);
+            pageParams.setSort("sort=desc=build.startTime");
+            return timings.time("pnc.search", pncClient.getArtifacts(pageParams, null, null, null).subscribeAsCompletionStage());
+        }, maxResults);
+    }
+
+    /**
+     * Works out the changes needed to import the build, asking the chooser whenever there is more than one possible
+     * upstream tag or branch.
+     */
+    ImportResult importBuild(BuildSource source, boolean fullClone, boolean fromInternal, Chooser chooser) {
+        //the build config is fetched while the upstream repository is being cloned
+        var pendingBuildConfig = fetchBuildConfig(source);
+
+        UpstreamSource upstreamSource = resolveUpstreamSource(source, fullClone, fromInternal, chooser);
+        return importResult(source, upstreamSource, pendingBuildConfig.join());
+    }
+
+    /**
+     * Imports builds that all come from the same upstream repository. They are imported one after the other on the
+     * executor through a single {@link UpstreamRepository}, so the repository is only opened, cloned and has its tags
+     * listed once. The build configs are all fetched up front.
+     *
+     * @return the result of each build, in the same order, failing individually
+     */
+    List<CompletableFuture<ImportResult>> importBuilds(List<BuildSource> sources, boolean fullClone, boolean fromInternal, Chooser chooser, Executor executor) {
+        List<CompletableFuture<BuildConfiguration>> pendingBuildConfigs = new ArrayList<>();
+        List<CompletableFuture<ImportResult>> results = new ArrayList<>();
+        for (var source : sources) {
+            pendingBuildConfigs.add(fetchBuildConfig(source));
+            results.add(new CompletableFuture<>());
+        }
+        executor.execute(() -> {
+            try (var upstream = openUpstream(sources.get(0).scmRepository.getExternalUrl(), fullClone)) {
+                for (int i = 0; i < sources.size(); ++i) {
+                    try {
+                        UpstreamSource upstreamSource = resolveUpstreamSource(upstream, sources.get(i), fromInternal, chooser);
+                        results.get(i).complete(importResult(sources.get(i), upstreamSource, pendingBuildConfigs.get(i).join()));
+                    } catch (CompletionException e) {
+                        results.get(i).completeExceptionally(e.getCause());
+                    } catch (Exception e) {
+                        results.get(i).completeExceptionally(e);
+                    }
+                }
+            } catch (Exception e) {
+                for (var result : results) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return results;
+    }
+
+    private CompletableFuture<BuildConfiguration> fetchBuildConfig(BuildSource source) {
+        return timings.time("pnc.build-config", pncClient.getBuildConfiguration(source.buildConfigId).subscribeAsCompletionStage())
+                .toCompletableFuture();
+    }
+
+    private ImportResult importResult(BuildSource source, UpstreamSource upstreamSource, BuildConfiguration buildConfig) {
+        String versionedName = versionName(buildConfig.getName());
+        return new ImportResult(versionedName, upstreamSource.getTag(), buildEntry(source, versionedName, buildConfig), upstreamSource.toYaml());
+    }
+
+    List<String> buildEntry(BuildSource source, String versionedName, BuildConfiguration buildConfiguration) {
+        String scm = source.scmRepository.getExternalUrl();
+        List<String> entry = new ArrayList<>();
+        entry.add("  - name: \"{{ " + versionedName + " }}\"");
+        entry.add("    project: " + buildConfiguration.getProject().getName());
+        entry.add("    scmUrl: " + scm);
+        entry.add("    scmRevision: \"{{ " + versionedName + " }}\"");
+        entry.add("    buildScript: " + source.buildScript);
+        entry.add("    buildType: " + source.buildType);
+        if (!Objects.equals(DEFAULT_SYSTEM_IMAGE, source.systemImageId)) {
+            entry.add("    systemImageId: " + source.systemImageId);
+        }
+        if (buildConfiguration.getDependencies() != null && !buildConfiguration.getDependencies().isEmpty()) {
+            entry.add("    dependencies:");
+            for (var dependency : buildConfiguration.getDependencies().values()) {
+                entry.add("    - {{ \"" + versionName(dependency.getName()) + "\" }}");
+            }
+        }
+        return entry;
+    }
+
+    static String versionName(String name) {
+        int pos = name.lastIndexOf('-');
+        if (pos == -1) {
+            return name + "-version";
+        }
+        return name.substring(0, pos) + "-version";
+    }
+
+    /**
+     * @param fromInternal if the upstream tag should be found from the commit PNC built, instead of by name
+     */
+    UpstreamSource resolveUpstreamSource(BuildSource source, boolean fullClone, boolean fromInternal, Chooser chooser) {
+        //unchecked exceptions such as the 409 of ImportResource.RequestedChooser are passed on unchanged
+        try (var upstream = openUpstream(source.scmRepository.getExternalUrl(), fullClone)) {
+            return resolveUpstreamSource(upstream, source, fromInternal, chooser);
+        } catch (IOException | GitAPIException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private UpstreamRepository openUpstream(String scm, boolean fullClone) throws IOException, GitAPIException {
+        try (var timer = timings.start("git.open")) {
+            return gitMirrorCache.open(scm, fullClone);
+        }
+    }
+
+    private UpstreamSource resolveUpstreamSource(UpstreamRepository upstream, BuildSource source, boolean fromInternal, Chooser chooser)
+            throws IOException, GitAPIException {
+        String scm = source.scmRepository.getExternalUrl();
+        String inferredTag = Objects.requireNonNullElse(source.scmTag, "").replaceAll("\\.redhat.*", "").replaceAll("-redhat.*", "");
+
+        String selectedCommit = "<< FIX ME >>";
+        String branch = "<< FIX ME >>";
+        String actualTag;
+
+        List<Ref> possibleTags = new ArrayList<>();
+        List<String> possibleBranches = new ArrayList<>();
+        List<Ref> allTags;
+        try (var timer = timings.start("git.tags")) {
+            allTags = upstream.tags();
+        }
+        Ref selectedRef = null;
+        Map<String, ObjectId> tagCommits = null;
+        if (fromInternal && source.scmRevision != null && source.scmTag != null && source.scmRepository.getInternalUrl() != null) {
+            try (var timer = timings.start("git.internal")) {
+                tagCommits = upstream.tagCommits(allTags);
+                selectedRef = tagFromInternalBuild(upstream, source, allTags, tagCommits, inferredTag, chooser);
+            }
+        }
+        if (selectedRef == null) {
+            for (var ref : allTags) {
+                if (ref.getName().contains(inferredTag)) {
+                    possibleTags.add(ref);
+                }
+            }
+            if (possibleTags.size() == 0) {
+                possibleTags.addAll(allTags);
+            }
+            possibleTags.sort(Comparator.comparing(Object::toString));
+            if (tagCommits == null) {
+                try (var timer = timings.start("git.peel")) {
+                    tagCommits = upstream.tagCommits(possibleTags);
+                }
+            }
+            if (possibleTags.size() == 1) {
+                selectedRef = possibleTags.get(0);
+            } else {
+                try (var timer = timings.start("selection")) {
+                    selectedRef = chooser.choose(new Choice(Choice.Kind.TAG, scm, inferredTag,
+                            "Multiple potential tags found for " + scm + ", please select the appropriate one: "), possibleTags, Ref::getName);
+                }
+            }
+        }
+        selectedCommit = tagCommits.get(selectedRef.getName()).name();
+        actualTag = selectedRef.getName().replaceAll(Import.REFS_TAGS, "");
+
+        Git publicGit;
+        try (var timer = timings.start("git.fetch")) {
+            publicGit = upstream.fetch(selectedRef);
+        }
+        try (var timer = timings.start("git.branches")) {
+            for (var b : ReachabilityIndex.branchesContaining(publicGit.getRepository(), ObjectId.fromString(selectedCommit), upstream.branches())) {
+                possibleBranches.add(b.getName());
+            }
+        }
+        if (possibleBranches.size() == 1) {
+            branch = possibleBranches.get(0);
+        } else {
+            try (var timer = timings.start("selection")) {
+                branch = chooser.choose(new Choice(Choice.Kind.BRANCH, scm, actualTag,
+                        "Multiple potential branches found for " + scm + ", please select the appropriate one: "), possibleBranches, Object::toString);
+            }
+        }
+        branch = branch.replaceAll(Import.REFS_HEADS, "").replaceAll(UpstreamRepository.REFS_REMOTES_ORIGIN, "");
+
+        return new UpstreamSource(scm, branch, selectedCommit, actualTag);
+    }
+
+    /**
+     * Finds the upstream tag the build was made from by fetching the PNC build's tag from the internal repository,
+     * and walking back from the built commit to the first commit that has an upstream tag. PNC adds its alignment
+     * commits on top of the upstream commit, so this is usually only a few commits away.
+     *
+     * @return the tag, or <code>null</code> if it could not be found this way
+     */
+    private Ref tagFromInternalBuild(UpstreamRepository upstream, BuildSource source, List<Ref> allTags, Map<String, ObjectId> tagCommits,
+            String inferredTag, Chooser chooser) {
+        String internalUrl = source.scmRepository.getInternalUrl();
+        List<String> names;
+        try {
+            Repository repository = upstream.fetchInternal(internalUrl, source.scmTag);
+            names = TagResolver.nearestTags(repository, ObjectId.fromString(source.scmRevision), tagCommits, internalWindow);
+        } catch (Exception e) {
+            Import.print("Could not use the PNC build from " + internalUrl + ", matching tags by name: " + e);
+            return null;
+        }
+        if (names.isEmpty()) {
+            Import.print("No upstream tag within " + internalWindow + " commits of the PNC build of " + source.scmTag + ", matching tags by name");
+            return null;
+        }
+        List<Ref> tags = new ArrayList<>();
+        for (var ref : allTags) {
+            if (names.contains(ref.getName())) {
+                tags.add(ref);
+            }
+        }
+        tags.sort(Comparator.comparing(Object::toString));
+        for (var ref : tags) {
+            if (ref.getName().equals(Import.REFS_TAGS + inferredTag)) {
+                return ref;
+            }
+        }
+        if (tags.size() == 1) {
+            return tags.get(0);
+        }
+        try (var timer = timings.start("selection")) {
+            String scm = source.scmRepository.getExternalUrl();
+            return chooser.choose(new Choice(Choice.Kind.TAG, scm, inferredTag,
+                    "Multiple tags found on the commit built by PNC for " + scm + ", please select the appropriate one: "), tags, Ref::getName);
+        }
+    }
+
+    /**
+     * Picks one of several possible artifacts, upstream tags or branches.
+     */
+    public interface Chooser {
+        <T> T choose(Choice choice, List<T> options, Function<T, String> mapping);
+    }
+}
@@ -0,0 +1,54 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildType;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+
+/**
+ * The information about a build config that is needed to import it. This comes from an existing build of it, found
+ * either through one of the artifacts it produced or as the latest build of the config. The config on its own is not
+ * enough, as it only has the branch it builds from and not the tag that was built.
+ */
+class BuildSource {
+
+    final String buildConfigId;
+    final SCMRepository scmRepository;
+
+    /**
+     * Tag or revision that was built, used to find the matching upstream tag.
+     */
+    final String scmTag;
+
+    /**
+     * The commit that was built in PNC's internal repository.
+     */
+    final String scmRevision;
+    final String buildScript;
+    final BuildType buildType;
+    final String systemImageId;
+
+    private BuildSource(String buildConfigId, SCMRepository scmRepository, String scmTag, String scmRevision, String buildScript, BuildType buildType, String systemImageId) {
+        this.buildConfigId = buildConfigId;
+        this.scmRepository = scmRepository;
+        this.scmTag = scmTag;
+        this.scmRevision = scmRevision;
+        this.buildScript = buildScript;
+        this.buildType = buildType;
+        this.systemImageId = systemImageId;
+    }
+
+    static BuildSource of(Artifact artifact) {
+        return of(artifact.getBuild());
+    }
+
+    static BuildSource of(Build build) {
+        return new BuildSource(build.getBuildConfigRevision().getId(),
+                build.getScmRepository(),
+                build.getScmTag(),
+                build.getScmRevision(),
+                build.getBuildConfigRevision().getBuildScript(),
+                build.getBuildConfigRevision().getBuildType(),
+                build.getEnvironment() == null ? null : build.getEnvironment().getSystemImageId());
+    }
+}
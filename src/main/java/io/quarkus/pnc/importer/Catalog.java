@@ -0,0 +1,18 @@
+package io.quarkus.pnc.importer;
+
+import picocli.CommandLine;
+
+/**
+ * Commands for the local {@link ArtifactCatalog}.
+ */
+@CommandLine.Command(name = "catalog", description = "Manage the local catalog of artifacts built by PNC", subcommands = { CatalogSync.class })
+public class Catalog implements Runnable {
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    @Override
+    public void run() {
+        spec.commandLine().usage(System.out);
+    }
+}
@@ -0,0 +1,91 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.PageParameters;
+import io.quarkus.pnc.importer.rest.SwaggerConstants;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Brings the {@link ArtifactCatalog} up to date. Only the artifacts created or modified since the newest one in the
+ * catalog are read from PNC, unless {@code --full} is given.
+ */
+@CommandLine.Command(name = "sync", description = "Download the pom artifacts built by PNC that are new or changed since the last sync")
+public class CatalogSync implements Runnable {
+
+    @CommandLine.Option(names = "--full", description = "Download the whole catalog again, instead of only the changes since the last sync")
+    boolean full;
+
+    @ConfigProperty(name = "importer.catalog.file")
+    String catalogFile;
+
+    @Inject
+    PncClient pncClient;
+
+    @Override
+    public void run() {
+        //every page is only read once, there is no point caching them
+        pncClient.disableCache();
+        Path file = Path.of(catalogFile);
+        try {
+            Map<String, ArtifactCatalog.Entry> entries = new LinkedHashMap<>();
+            Instant watermark = null;
+            if (!full) {
+                ArtifactCatalog existing = ArtifactCatalog.open(file);
+                watermark = existing.watermark();
+                for (var entry : existing.entries()) {
+                    entries.put(entry.getId(), entry);
+                }
+            }
+            Rsql query = Rsql.like("identifier", "%:pom:%").and(Rsql.isNull("build", false));
+            if (watermark != null) {
+                Import.print("Reading artifacts changed since " + watermark + "...");
+                //artifacts with the same timestamp as the newest one may have been added after the last sync, the ones that
+                //were already read are just replaced
+                query = query.and(Rsql.ge("creationTime", watermark.toString()).or(Rsql.ge("modificationTime", watermark.toString())));
+            } else {
+                Import.print("Reading all artifacts, this can take a while...");
+            }
+            Rsql q = query;
+            var results = new PageIterator<Artifact>(pageIndex -> {
+                PageParameters pageParams = new PageParameters();
+                pageParams.setPageIndex(pageIndex);
+                pageParams.setPageSize(SwaggerConstants.MAX_PAGE_SIZE);
+                q.applyTo(pageParams);
+                pageParams.setSort("sort=asc=id");
+                return pncClient.getArtifacts(pageParams, null, null, null).subscribeAsCompletionStage();
+            }, Integer.MAX_VALUE);
+            int changed = 0;
+            Instant newWatermark = watermark;
+            while (results.hasNext()) {
+                var artifact = results.next();
+                if (artifact.getBuild() == null) {
+                    continue;
+                }
+                entries.put(artifact.getId(), ArtifactCatalog.Entry.of(artifact));
+                newWatermark = latest(latest(newWatermark, artifact.getCreationTime()), artifact.getModificationTime());
+                if (++changed % 10000 == 0) {
+                    Import.print("Read " + changed + " artifacts");
+                }
+            }
+            ArtifactCatalog.write(file, entries.values(), newWatermark);
+            Import.print("Catalog " + file + " has " + entries.size() + " artifacts, " + changed + " new or changed");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,82 @@
+package io.quarkus.pnc.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The MD5, SHA-1 and SHA-256 of a local file, as PNC stores them for its artifacts.
+ * <p>
+ * Files are memory mapped and all three digests are computed in a single pass: each small block of the file is
+ * passed to every digest while it is still in the CPU cache, instead of reading the whole file three times.
+ */
+public final class Checksums {
+
+    //mapping has a fixed cost, small files are just read
+    private static final int MAP_THRESHOLD = 64 * 1024;
+    private static final long WINDOW = 64L * 1024 * 1024;
+    private static final int BLOCK = 64 * 1024;
+
+    public final Path file;
+    public final String md5;
+    public final String sha1;
+    public final String sha256;
+
+    Checksums(Path file, String md5, String sha1, String sha256) {
+        this.file = file;
+        this.md5 = md5;
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+    }
+
+    public static Checksums of(Path file) throws IOException {
+        MessageDigest[] digests;
+        try {
+            digests = new MessageDigest[] {
+                    MessageDigest.getInstance("MD5"),
+                    MessageDigest.getInstance("SHA-1"),
+                    MessageDigest.getInstance("SHA-256")
+            };
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                update(digests, ByteBuffer.wrap(Files.readAllBytes(file)));
+            } else {
+                //a mapping is limited to 2G, so large files are mapped a window at a time
+                for (long position = 0; position < size; position += WINDOW) {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+                    update(digests, window);
+                }
+            }
+        }
+        return new Checksums(file, hex(digests[0].digest()), hex(digests[1].digest()), hex(digests[2].digest()));
+    }
+
+    private static void update(MessageDigest[] digests, ByteBuffer buffer) {
+        for (int pos = 0; pos < buffer.limit(); pos += BLOCK) {
+            ByteBuffer block = buffer.duplicate();
+            block.position(pos);
+            block.limit(Math.min(pos + BLOCK, buffer.limit()));
+            for (var digest : digests) {
+                digest.update(block.duplicate());
+            }
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package io.quarkus.pnc.importer;
+
+/**
+ * A choice between several possible artifacts, tags or branches that has to be made during an import.
+ */
+public class Choice {
+
+    public enum Kind {
+        ARTIFACT,
+        TAG,
+        BRANCH
+    }
+
+    final Kind kind;
+
+    /**
+     * What the choice is for: the searched identifier for an artifact, or the repository URL for a tag or branch.
+     */
+    final String subject;
+
+    /**
+     * The expected value if there is one: the upstream tag inferred from the PNC build for a tag, or the selected tag
+     * for a branch.
+     */
+    final String hint;
+
+    /**
+     * The question to ask if the user has to choose.
+     */
+    final String prompt;
+
+    Choice(Kind kind, String subject, String hint, String prompt) {
+        this.kind = kind;
+        this.subject = subject;
+        this.hint = hint;
+        this.prompt = prompt;
+    }
+}
@@ -4,6 +4,6 @@ import io.quarkus.picocli.runtime.annotations.TopCommand;
 import picocli.CommandLine;
 
 @TopCommand
-@CommandLine.Command(mixinStandardHelpOptions = true, subcommands = { Import.class })
+@CommandLine.Command(mixinStandardHelpOptions = true, subcommands = { Import.class, Catalog.class, ReplayServer.class, Serve.class })
 public class EntryPoint {
 }
@@ -0,0 +1,238 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.util.FileUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps bare mirrors of upstream repositories between runs, so that importing from the same upstream again only needs
+ * an incremental fetch.
+ * <p>
+ * Mirrors are stored in {@code importer.git.cache.directory}, one per {@link io.quarkus.pnc.importer.rest.SCMRepository#getExternalUrl()}.
+ * Once the total size of the cache goes over {@code importer.git.cache.max-size} the least recently used mirrors are
+ * deleted.
+ * <p>
+ * A mirror can only be used by one import at a time, concurrent imports from the same upstream wait for each other.
+ * This also holds across processes sharing the cache directory, through a lock on a {@code .lock} file next to each
+ * mirror, which is deleted with the mirror.
+ */
+@ApplicationScoped
+public class GitMirrorCache {
+
+    static final String LAST_USED = "pnc-importer-last-used";
+
+    @ConfigProperty(name = "importer.git.cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "importer.git.cache.directory")
+    String directory;
+
+    @ConfigProperty(name = "importer.git.cache.max-size", defaultValue = "10G")
+    MemorySize maxSize;
+
+    private final Map<Path, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Opens the given upstream repository. Full clones are never cached, as they need a working tree.
+     */
+    UpstreamRepository open(String url, boolean fullClone) throws IOException, GitAPIException {
+        if (!enabled || fullClone) {
+            return UpstreamRepository.temporary(url, fullClone);
+        }
+        Path mirror = Path.of(directory).resolve(key(url));
+        Files.createDirectories(mirror.getParent());
+        ReentrantLock lock = locks.computeIfAbsent(mirror, k -> new ReentrantLock());
+        lock.lock();
+        FileLock fileLock = null;
+        try {
+            fileLock = lockFile(mirror, true);
+            FileLock held = fileLock;
+            return UpstreamRepository.mirror(url, mirror, () -> release(mirror, held, lock));
+        } catch (IOException | RuntimeException e) {
+            if (fileLock != null) {
+                unlockFile(fileLock);
+            }
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private void release(Path mirror, FileLock fileLock, ReentrantLock lock) {
+        try {
+            if (Files.isDirectory(mirror)) {
+                Files.writeString(mirror.resolve(LAST_USED), Instant.now().toString(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to update git mirror cache: " + e);
+        } finally {
+            unlockFile(fileLock);
+            lock.unlock();
+        }
+        evict();
+    }
+
+    /**
+     * Locks the mirror against other processes. The {@link ReentrantLock} of the mirror must be held by this thread,
+     * and not from an earlier call: file locks belong to the whole process, and closing any channel on the file drops
+     * them, so no other thread of this process may have the file locked.
+     * <p>
+     * The lock file is deleted together with the mirror, see {@link #deleteLockFile(Path, FileLock)}. A process that
+     * was waiting on a lock file that has since been deleted finds it marked as such, and locks the new one instead.
+     *
+     * @param wait whether to wait for the lock, or return null if another process holds it
+     */
+    static FileLock lockFile(Path mirror, boolean wait) throws IOException {
+        while (true) {
+            FileChannel channel = FileChannel.open(lockFilePath(mirror), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                FileLock lock = wait ? channel.lock() : channel.tryLock();
+                if (lock == null) {
+                    channel.close();
+                    return null;
+                }
+                if (channel.size() == 0) {
+                    return lock;
+                }
+                channel.close();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Deletes the lock file of an evicted mirror while it is still locked, then marks it as deleted by writing to it,
+     * for the processes that opened it before it was deleted. Lock files that are in use are always empty.
+     */
+    private static void deleteLockFile(Path mirror, FileLock lock) throws IOException {
+        Files.delete(lockFilePath(mirror));
+        lock.channel().write(ByteBuffer.wrap(new byte[]{1}));
+    }
+
+    static Path lockFilePath(Path mirror) {
+        return mirror.resolveSibling(mirror.getFileName() + ".lock");
+    }
+
+    private static void unlockFile(FileLock lock) {
+        try {
+            //closing the channel releases the lock
+            lock.channel().close();
+        } catch (IOException e) {
+            System.err.println("Failed to unlock git mirror: " + e);
+        }
+    }
+
+    /**
+     * Deletes the least recently used mirrors until the cache fits in the configured size. Mirrors that are in use, by
+     * this or another process, are never deleted.
+     */
+    synchronized void evict() {
+        try {
+            List<Mirror> mirrors;
+            try (Stream<Path> dirs = Files.list(Path.of(directory))) {
+                mirrors = dirs.filter(Files::isDirectory).map(Mirror::new).collect(Collectors.toCollection(ArrayList::new));
+            }
+            long total = mirrors.stream().mapToLong(m -> m.size).sum();
+            mirrors.sort(Comparator.comparing(m -> m.lastUsed));
+            for (var mirror : mirrors) {
+                if (total <= maxSize.asLongValue()) {
+                    break;
+                }
+                ReentrantLock lock = locks.computeIfAbsent(mirror.path, k -> new ReentrantLock());
+                if (!lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    if (lock.getHoldCount() > 1) {
+                        //this thread has the mirror open
+                        continue;
+                    }
+                    FileLock fileLock = lockFile(mirror.path, false);
+                    if (fileLock == null) {
+                        continue;
+                    }
+                    try {
+                        FileUtils.delete(mirror.path.toFile(), FileUtils.RECURSIVE | FileUtils.RETRY);
+                        deleteLockFile(mirror.path, fileLock);
+                    } finally {
+                        unlockFile(fileLock);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                total -= mirror.size;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to clean up git mirror cache: " + e);
+        }
+    }
+
+    /**
+     * The name of the mirror directory, the last segment of the URL to make it easy to find plus a hash to make it
+     * unique.
+     */
+    static String key(String url) {
+        String name = url.replaceAll("/+$", "");
+        name = name.substring(name.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(name).append('-');
+            for (int i = 0; i < 8; ++i) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class Mirror {
+        final Path path;
+        final FileTime lastUsed;
+        final long size;
+
+        Mirror(Path path) {
+            this.path = path;
+            try {
+                Path marker = path.resolve(LAST_USED);
+                this.lastUsed = Files.getLastModifiedTime(Files.exists(marker) ? marker : path);
+                try (Stream<Path> files = Files.walk(path)) {
+                    this.size = files.filter(Files::isRegularFile).mapToLong(f -> {
+                        try {
+                            return Files.size(f);
+                        } catch (IOException e) {
+                            return 0;
+                        }
+                    }).sum();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
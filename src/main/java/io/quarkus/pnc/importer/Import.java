@@ -1,87 +1,456 @@
 package io.quarkus.pnc.importer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.pnc.importer.rest.Artifact;
-import io.quarkus.pnc.importer.rest.ArtifactEndpoint;
 import io.quarkus.pnc.importer.rest.ArtifactRef;
+import io.quarkus.pnc.importer.rest.Build;
 import io.quarkus.pnc.importer.rest.BuildConfiguration;
-import io.quarkus.pnc.importer.rest.BuildConfigurationEndpoint;
-import io.quarkus.pnc.importer.rest.PageParameters;
-import io.quarkus.pnc.importer.rest.SwaggerConstants;
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.Ref;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @CommandLine.Command(name = "import")
 public class Import implements Runnable {
 
-    /**
-     * TODO: this should be read from the file
-     */
-    private static final String DEFAULT_SYSTEM_IMAGE = "builder-rhel-7-j11.0.11-9-mvn3.6.3-gradle7.0.2:1.0.6";
-
     public static final String GREEN = "\u001b[32m";
     public static final String RESET = "\u001b[39m";
     public static final String REFS_TAGS = "refs/tags/";
     public static final String REFS_HEADS = "refs/heads/";
 
+    private static BufferedReader stdin;
+
     @CommandLine.Option(names = "-p", description = "Path to the CPAAS config checkout (usually a checkout of Gitlab application-services/quarkus-components)")
     Path path;
 
-    @CommandLine.Parameters(description = "Artifact identifier to search for")
-    String artifact;
+    @CommandLine.Parameters(arity = "0..*", description = "Artifact identifiers to search for")
+    List<String> artifacts = new ArrayList<>();
+
+    @CommandLine.Option(names = {"-f", "--file"}, description = "File containing artifact identifiers to search for, one per line")
+    Path artifactsFile;
+
+    @CommandLine.Option(names = "--from-jar", description = "Local jar to import the PNC build of, found by its checksum. Can be given more than once")
+    List<Path> jars = new ArrayList<>();
+
+    @CommandLine.Option(names = "--from-dir", description = "Directory, such as a local Maven repository, with jars to import the PNC builds of, found by their checksums")
+    Path jarDirectory;
+
+    @CommandLine.Option(names = "--group", description = "ID of a PNC group config to import all the build configs of. Can be given more than once")
+    List<String> groupConfigs = new ArrayList<>();
+
+    @CommandLine.Option(names = "--product-version", description = "ID of a PNC product version to import all the build configs of, including those of its group configs. Can be given more than once")
+    List<String> productVersions = new ArrayList<>();
+
+    @CommandLine.Option(names = "--threads", defaultValue = "4", description = "Number of artifacts to look up and import concurrently")
+    int threads;
+
+    @CommandLine.Option(names = "--full-clone", description = "Clone the upstream repository with a working tree, instead of only fetching the selected tag and the branch heads")
+    boolean fullClone;
+
+    @CommandLine.Option(names = "--from-internal", description = "Find the upstream tag from the commit PNC built, by fetching the build from PNC's internal repository, instead of matching tag names")
+    boolean fromInternal;
+
+    @CommandLine.Option(names = "--auto", description = "Make all choices without asking: the newest build, the exact tag and the highest release branch")
+    boolean auto;
+
+    @CommandLine.Option(names = "--rules", description = "File with rules for choosing artifacts, tags and branches, one '<artifact|tag|branch> <subject regex> <value regex>' per line")
+    Path rulesFile;
+
+    @CommandLine.Option(names = "--catalog", description = "Find the artifacts in the local catalog written by 'catalog sync', instead of searching PNC")
+    boolean useCatalog;
+
+    @CommandLine.Option(names = "--max-results", defaultValue = "1000", description = "Maximum number of artifacts to read from PNC when searching")
+    int maxResults;
+
+    @CommandLine.Option(names = "--transitive", description = "Also import the build configs the selected builds depend on, directly or indirectly, that are not in build-config.yaml yet")
+    boolean transitive;
+
+    @CommandLine.Option(names = "--no-cache", description = "Always query PNC, instead of reusing responses from previous runs")
+    boolean noCache;
+
+    @CommandLine.Option(names = "--record", description = "Save the PNC responses to this directory, to be served later by replay-server")
+    Path recordDirectory;
+
+    @CommandLine.Option(names = "--timings", description = "Print how long each phase of the import took")
+    boolean printTimings;
+
+    @CommandLine.Option(names = "--timings-json", description = "Write how long each phase of the import took to this file as JSON")
+    Path timingsFile;
 
     @Inject
-    @RestClient
-    ArtifactEndpoint artifactEndpoint;
+    PncClient pncClient;
 
     @Inject
-    @RestClient
-    BuildConfigurationEndpoint buildConfigurationEndpoint;
+    PncRecorder pncRecorder;
+
+    @Inject
+    BuildImporter buildImporter;
+
+    @Inject
+    Timings timings;
+
+    @Inject
+    ObjectMapper mapper;
 
     @Override
     public void run() {
-        print("Searching for artifacts...");
-        PageParameters pageParams = new PageParameters();
-        pageParams.setPageSize(SwaggerConstants.MAX_PAGE_SIZE);
-        pageParams.setQ("identifier=like=\"%" + artifact + "%\"");
-        pageParams.setSort("sort=desc=build.startTime");
-        var results = artifactEndpoint.getAll(pageParams, null, null, null);
-        if (results.getContent().isEmpty()) {
-            System.out.println("No existing builds found");
+        if (recordDirectory != null) {
+            pncRecorder.record(recordDirectory);
+        }
+        if (noCache || pncRecorder.isRecording()) {
+            //cached responses would not be recorded
+            pncClient.disableCache();
+        }
+        List<String> identifiers = identifiers();
+        List<Path> localFiles = localFiles();
+        if (identifiers.isEmpty() && localFiles.isEmpty() && groupConfigs.isEmpty() && productVersions.isEmpty()) {
+            System.err.println("No artifacts specified");
             System.exit(1);
         }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            SelectionPolicy policy = SelectionPolicy.create(auto, rulesFile);
+            List<Artifact> selectedArtifacts = new ArrayList<>(selectByIdentifier(identifiers, policy, executor));
+            selectedArtifacts.addAll(selectByChecksum(localFiles, policy, executor));
+            Map<String, BuildSource> sources = new LinkedHashMap<>();
+            Set<String> buildConfigIds = new LinkedHashSet<>();
+            for (var selectedArtifact : distinctBuilds(selectedArtifacts)) {
+                sources.put(selectedArtifact.getIdentifier(), BuildSource.of(selectedArtifact));
+                buildConfigIds.add(selectedArtifact.getBuild().getBuildConfigRevision().getId());
+            }
+            List<BuildConfiguration> buildConfigs = new ArrayList<>();
+            for (var buildConfig : groupBuildConfigs()) {
+                if (buildConfigIds.add(buildConfig.getId())) {
+                    buildConfigs.add(buildConfig);
+                }
+            }
+            sources.putAll(latestBuilds(buildConfigs));
+            if (sources.isEmpty()) {
+                System.err.println("Could not proceed: no builds to import");
+                System.exit(1);
+            }
 
-        print("Please select the artifact to use as the base for the build:");
-        List<Artifact> possible = new ArrayList<>();
+            Map<String, CompletableFuture<ImportResult>> imports = new LinkedHashMap<>();
+            startImports(sources, policy, executor, imports);
+            if (transitive) {
+                print("Resolving dependencies...");
+                List<BuildConfiguration> dependencies = missingDependencies(buildConfigIds, executor);
+                for (var dependency : dependencies) {
+                    print("Importing missing dependency " + dependency.getName());
+                }
+                startImports(latestBuilds(dependencies), policy, executor, imports);
+            }
+            List<ImportResult> results = new ArrayList<>();
+            boolean failed = false;
+            for (var entry : imports.entrySet()) {
+                try {
+                    results.add(entry.getValue().join());
+                } catch (CompletionException e) {
+                    System.err.println("Failed to import " + entry.getKey() + ": " + e.getCause());
+                    failed = true;
+                }
+            }
+            if (failed) {
+                System.err.println("Could not proceed: no changes have been written");
+                System.exit(1);
+            }
+            writeResults(results);
+        } catch (ImportException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+            reportTimings();
+        }
+    }
 
-        for (var artifact : results.getContent()) {
-            if (artifact.getBuild() == null) {
-                continue;
+    private List<Artifact> selectByIdentifier(List<String> identifiers, SelectionPolicy policy, ExecutorService executor) {
+        if (identifiers.isEmpty()) {
+            return List.of();
+        }
+        print("Searching for artifacts...");
+        Map<String, CompletableFuture<List<Artifact>>> searches = new LinkedHashMap<>();
+        for (var identifier : identifiers) {
+            searches.put(identifier, CompletableFuture.supplyAsync(() -> useCatalog
+                    ? buildImporter.findCandidatesInCatalog(identifier, maxResults)
+                    : buildImporter.findCandidates(identifier, maxResults), executor));
+        }
+
+        //selection may be interactive, so it is done one artifact at a time while the other searches complete
+        List<Artifact> selectedArtifacts = new ArrayList<>();
+        for (var search : searches.entrySet()) {
+            List<Artifact> possible = search.getValue().join();
+            if (possible.isEmpty()) {
+                System.out.println("No existing builds found for " + search.getKey());
+                System.exit(1);
+            }
+            Artifact selectedArtifact;
+            try (var timer = timings.start("selection")) {
+                selectedArtifact = policy.choose(new Choice(Choice.Kind.ARTIFACT, search.getKey(), null,
+                                "Please select the artifact to use as the base for the build of " + search.getKey() + ":"),
+                        possible, s -> s.getIdentifier() + (s.getBuild().getScmRepository().getPreBuildSyncEnabled() ? "" : " [no pre build sync]"));
+            }
+            if (useCatalog) {
+                //the catalog only has enough to choose, the rest of the build comes from PNC
+                selectedArtifact = pncClient.getArtifact(selectedArtifact.getId()).await().indefinitely();
+            }
+            validate(selectedArtifact);
+            selectedArtifacts.add(selectedArtifact);
+        }
+        return selectedArtifacts;
+    }
+
+    /**
+     * Hashes the local files concurrently and finds the PNC artifacts with the same checksums. Files that PNC did not
+     * build, such as third party jars in a local Maven repository, are skipped.
+     */
+    private List<Artifact> selectByChecksum(List<Path> files, SelectionPolicy policy, ExecutorService executor) {
+        if (files.isEmpty()) {
+            return List.of();
+        }
+        print("Hashing " + files.size() + " local files...");
+        List<CompletableFuture<Checksums>> hashes = new ArrayList<>();
+        for (var file : files) {
+            hashes.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return Checksums.of(file);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }, executor));
+        }
+        List<Checksums> checksums = new ArrayList<>();
+        try (var timer = timings.start("hash")) {
+            for (var hash : hashes) {
+                checksums.add(hash.join());
             }
-            //we only display the pom artifacts, so there is not heaps of double ups
-            if (!artifact.getIdentifier().contains(":pom:")) {
+        }
+        print("Searching for artifacts by checksum...");
+        List<Artifact> selectedArtifacts = new ArrayList<>();
+        for (var found : buildImporter.findByChecksums(checksums).entrySet()) {
+            Checksums file = found.getKey();
+            List<Artifact> possible = found.getValue();
+            if (possible.isEmpty()) {
+                System.out.println("No PNC build found for " + file.file);
                 continue;
             }
-            possible.add(artifact);
+            String name = file.file.getFileName().toString();
+            Artifact selectedArtifact;
+            try (var timer = timings.start("selection")) {
+                selectedArtifact = policy.choose(new Choice(Choice.Kind.ARTIFACT, name, null,
+                                "Please select the build of " + file.file + " to import:"),
+                        possible, s -> s.getIdentifier() + " (build " + s.getBuild().getId() + ")");
+            }
+            validate(selectedArtifact);
+            selectedArtifacts.add(selectedArtifact);
+        }
+        return selectedArtifacts;
+    }
+
+    /**
+     * Several artifacts, such as the jars of a multi module project, can come from the same build, which is only
+     * imported once.
+     *
+     * @return the first artifact of each build
+     */
+    static List<Artifact> distinctBuilds(List<Artifact> artifacts) {
+        Map<String, Artifact> builds = new LinkedHashMap<>();
+        for (var artifact : artifacts) {
+            builds.putIfAbsent(artifact.getBuild().getId(), artifact);
+        }
+        return new ArrayList<>(builds.values());
+    }
+
+    private List<Path> localFiles() {
+        List<Path> files = new ArrayList<>(jars);
+        if (jarDirectory != null) {
+            try (var walk = Files.walk(jarDirectory)) {
+                walk.filter(p -> p.getFileName().toString().endsWith(".jar") && Files.isRegularFile(p))
+                        .sorted()
+                        .forEach(files::add);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Starts importing the builds. Builds from the same upstream repository are imported one after the other by a
+     * single task, sharing the clone and tag listing, instead of each waiting for the others to release the mirror.
+     */
+    private void startImports(Map<String, BuildSource> sources, SelectionPolicy policy, ExecutorService executor, Map<String, CompletableFuture<ImportResult>> imports) {
+        for (var names : byRepository(sources).values()) {
+            List<BuildSource> repositorySources = names.stream().map(sources::get).collect(Collectors.toList());
+            var results = buildImporter.importBuilds(repositorySources, fullClone, fromInternal, policy, executor);
+            for (int i = 0; i < names.size(); ++i) {
+                imports.put(names.get(i), results.get(i));
+            }
+        }
+    }
+
+    /**
+     * @return the names of the sources, grouped by upstream repository in the order they were first seen
+     */
+    static Map<String, List<String>> byRepository(Map<String, BuildSource> sources) {
+        Map<String, List<String>> byRepository = new LinkedHashMap<>();
+        for (var source : sources.entrySet()) {
+            byRepository.computeIfAbsent(source.getValue().scmRepository.getExternalUrl(), k -> new ArrayList<>()).add(source.getKey());
+        }
+        return byRepository;
+    }
+
+    /**
+     * Fetches all the build configs of the requested group configs and product versions. At most {@code --threads}
+     * requests to PNC are made at a time, as large product versions have hundreds of build configs.
+     */
+    List<BuildConfiguration> groupBuildConfigs() {
+        if (groupConfigs.isEmpty() && productVersions.isEmpty()) {
+            return List.of();
+        }
+        print("Fetching group configs...");
+        Set<String> groupIds = new LinkedHashSet<>(groupConfigs);
+        Set<String> ids = new LinkedHashSet<>();
+        for (var productVersion : fetchAll(productVersions,
+                id -> notFound(pncClient.getProductVersion(id), "No product version " + id), threads)) {
+            if (productVersion.getBuildConfigs() != null) {
+                for (var ref : productVersion.getBuildConfigs().values()) {
+                    ids.add(ref.getId());
+                }
+            }
+            if (productVersion.getGroupConfigs() != null) {
+                for (var ref : productVersion.getGroupConfigs().values()) {
+                    groupIds.add(ref.getId());
+                }
+            }
+        }
+        for (var groupConfig : fetchAll(groupIds,
+                id -> notFound(pncClient.getGroupConfiguration(id), "No group config " + id), threads)) {
+            if (groupConfig.getBuildConfigs() != null) {
+                for (var ref : groupConfig.getBuildConfigs().values()) {
+                    ids.add(ref.getId());
+                }
+            }
+        }
+        print("Fetching " + ids.size() + " build configs...");
+        List<BuildConfiguration> buildConfigs = fetchAll(ids, id -> Uni.createFrom().completionStage(
+                () -> timings.time("pnc.build-config", pncClient.getBuildConfiguration(id).subscribeAsCompletionStage())), threads);
+        for (var buildConfig : buildConfigs) {
+            if (!Objects.equals(buildConfig.getScmRepository().getPreBuildSyncEnabled(), true)) {
+                throw new ImportException("Pre build sync not enabled for " + buildConfig.getScmRepository().getExternalUrl() + " (required by build config " + buildConfig.getName() + ") in PNC, this is required");
+            }
+        }
+        return buildConfigs;
+    }
+
+    /**
+     * Reports an id PNC does not know, most likely mistyped on the command line, as an {@link ImportException}.
+     */
+    private static <T> Uni<T> notFound(Uni<T> request, String message) {
+        return request.onFailure(e -> e instanceof WebApplicationException && ((WebApplicationException) e).getResponse().getStatus() == 404)
+                .transform(e -> new ImportException(message));
+    }
+
+    /**
+     * Finds the latest successful build of each build config to import it from, as the config itself only has the
+     * branch it builds from. Configs that have never been built successfully are skipped.
+     *
+     * @return the sources by build config name
+     */
+    private Map<String, BuildSource> latestBuilds(List<BuildConfiguration> buildConfigs) {
+        if (buildConfigs.isEmpty()) {
+            return Map.of();
+        }
+        print("Fetching the latest builds of " + buildConfigs.size() + " build configs...");
+        List<String> ids = buildConfigs.stream().map(BuildConfiguration::getId).collect(Collectors.toList());
+        List<Build> builds = fetchAll(ids, id -> Uni.createFrom().completionStage(
+                () -> timings.time("pnc.builds", pncClient.getLatestSuccessfulBuild(id).subscribeAsCompletionStage())), threads);
+        Map<String, BuildSource> sources = new LinkedHashMap<>();
+        for (int i = 0; i < buildConfigs.size(); ++i) {
+            if (builds.get(i) == null) {
+                System.err.println("No successful build of " + buildConfigs.get(i).getName() + " found in PNC, it will not be imported");
+            } else {
+                sources.put(buildConfigs.get(i).getName(), BuildSource.of(builds.get(i)));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Fetches the entities with the given ids from PNC, at most {@code threads} at a time.
+     *
+     * @return the entities in the same order as the ids, null where there is none
+     */
+    static <T> List<T> fetchAll(Collection<String> ids, Function<String, Uni<T>> fetch, int threads) {
+        //a Multi cannot carry nulls, so each entity travels with its id
+        Map<String, Map.Entry<String, T>> fetched = Multi.createFrom().iterable(ids)
+                .onItem().transformToUni(id -> fetch.apply(id).onItem().transform(entity -> (Map.Entry<String, T>) new AbstractMap.SimpleEntry<>(id, entity)))
+                .merge(threads)
+                .collect().asMap(Map.Entry::getKey)
+                .await().indefinitely();
+        return ids.stream().map(id -> fetched.get(id).getValue()).collect(Collectors.toList());
+    }
+
+    private void reportTimings() {
+        if (printTimings) {
+            timings.print();
         }
-        Artifact selectedArtifact = selectFromList(possible, s -> s.getIdentifier() + (s.getBuild().getScmRepository().getPreBuildSyncEnabled() ? "" : " [no pre build sync]"));
+        if (timingsFile != null) {
+            try {
+                timings.write(timingsFile, mapper);
+            } catch (IOException e) {
+                System.err.println("Failed to write timings to " + timingsFile + ": " + e);
+            }
+        }
+    }
+
+    private List<String> identifiers() {
+        List<String> identifiers = new ArrayList<>(artifacts);
+        if (artifactsFile != null) {
+            try {
+                for (var line : Files.readAllLines(artifactsFile, StandardCharsets.UTF_8)) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        identifiers.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return identifiers;
+    }
+
+    private void validate(Artifact selectedArtifact) {
         if (selectedArtifact.getBuild() == null) {
             System.err.println("Could not proceed: no build information for selected artifact");
             System.exit(1);
@@ -94,154 +463,161 @@ public class Import implements Runnable {
             System.err.println("Pre build sync not enabled for " + selectedArtifact.getBuild().getScmRepository().getExternalUrl() + " in PNC, this is required");
             System.exit(1);
         }
+    }
 
+    /**
+     * Walks the dependency graph of the build configs being imported, and returns the configs that are
+     * neither already in build-config.yaml nor being imported. Every config is only fetched once, and all the
+     * dependencies of a config are fetched concurrently.
+     *
+     * @param executor runs the walk, as looking up a config can read the response cache from disk
+     */
+    List<BuildConfiguration> missingDependencies(Set<String> roots, Executor executor) {
+        Map<String, CompletableFuture<BuildConfiguration>> visited = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> walks = new ArrayList<>();
+        for (var id : roots) {
+            walks.add(visitDependencies(id, visited, executor));
+        }
+        CompletableFuture.allOf(walks.toArray(CompletableFuture[]::new)).join();
 
-        var buildconfigId = selectedArtifact.getBuild().getBuildConfigRevision().getId();
-        var buildConfig = buildConfigurationEndpoint.getSpecific(buildconfigId);
+        Set<String> present = existingVersionNames();
+        for (var id : roots) {
+            present.add(BuildImporter.versionName(visited.get(id).join().getName()));
+        }
+        List<BuildConfiguration> missing = new ArrayList<>();
+        for (var future : visited.values()) {
+            var buildConfig = future.join();
+            if (present.add(BuildImporter.versionName(buildConfig.getName()))) {
+                if (!Objects.equals(buildConfig.getScmRepository().getPreBuildSyncEnabled(), true)) {
+                    throw new ImportException("Pre build sync not enabled for " + buildConfig.getScmRepository().getExternalUrl() + " (required by dependency " + buildConfig.getName() + ") in PNC, this is required");
+                }
+                missing.add(buildConfig);
+            }
+        }
+        return missing;
+    }
 
-        String tag = generateUpstreamSourcesYaml(selectedArtifact);
-        generateBuildYaml(selectedArtifact, tag, buildConfig);
+    private CompletableFuture<Void> visitDependencies(String id, Map<String, CompletableFuture<BuildConfiguration>> visited, Executor executor) {
+        CompletableFuture<BuildConfiguration> buildConfig = new CompletableFuture<>();
+        if (visited.putIfAbsent(id, buildConfig) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        timings.time("pnc.build-config", pncClient.getBuildConfiguration(id).subscribeAsCompletionStage())
+                .whenComplete((config, failure) -> {
+                    if (failure != null) {
+                        buildConfig.completeExceptionally(failure);
+                    } else {
+                        buildConfig.complete(config);
+                    }
+                });
+        //the config completes on the event loop, which must not be blocked by the next lookups
+        return buildConfig.thenComposeAsync(config -> {
+            if (config.getDependencies() == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.allOf(config.getDependencies().values().stream()
+                    .map(dependency -> visitDependencies(dependency.getId(), visited, executor))
+                    .toArray(CompletableFuture[]::new));
+        }, executor);
+    }
 
+    /**
+     * @return the names of the version variables that are already defined in build-config.yaml
+     */
+    private Set<String> existingVersionNames() {
+        try {
+            return new HashSet<>(BuildConfigYaml.read(path.resolve("build-config.yaml")).getVersions().keySet());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private void generateBuildYaml(Artifact selectedArtifact, String upstreamTag, BuildConfiguration buildConfiguration) {
+    /**
+     * Writes both files to temporary files first, and only moves them into place once both have been written, so a
+     * failure leaves the checkout unchanged rather than with sources recorded for builds that are not in the config.
+     */
+    void writeResults(List<ImportResult> results) {
+        Path upstreamSources = path.resolve("upstream_sources.yml");
+        Path buildConfig = path.resolve("build-config.yaml");
+        Path upstreamSourcesTemp = null;
+        Path buildConfigTemp = null;
         try {
-            String scm = selectedArtifact.getBuild().getScmRepository().getExternalUrl();
-
-            String projectName = selectedArtifact.getBuild().getProject().getName();
-            Path output = path.resolve("build-config.yaml");
-            var existing = new ArrayList<>(Files.readAllLines(output, StandardCharsets.UTF_8));
-            boolean foundHashBang = false;
-            boolean versionAdded = false;
-            String versionedName = versionName(buildConfiguration.getName());
-            for (var iter = existing.listIterator(); iter.hasNext(); ) {
-                String line = iter.next();
-                if (!foundHashBang) {
-                    if (line.startsWith("#!")) {
-                        foundHashBang = true;
-                    }
-                } else if (!versionAdded) {
-                    if (!line.startsWith("#!")) {
-                        iter.previous();
-                        iter.add("#!" + versionedName + "=" + upstreamTag);
-                        versionAdded = true;
-                    }
-                } else {
-                    if (line.equals("builds:")) {
-
-                        iter.add("");
-                        iter.add("  - name: \"{{ " + versionedName + " }}\"");
-                        iter.add("    project: " + buildConfiguration.getProject().getName());
-                        iter.add("    scmUrl: " + scm);
-                        iter.add("    scmRevision: \"{{ " + versionedName + " }}\"");
-                        iter.add("    buildScript: " + selectedArtifact.getBuild().getBuildConfigRevision().getBuildScript());
-                        iter.add("    buildType: " + selectedArtifact.getBuild().getBuildConfigRevision().getBuildType());
-                        if (!Objects.equals(DEFAULT_SYSTEM_IMAGE, selectedArtifact.getBuild().getEnvironment().getSystemImageId())) {
-                            iter.add("    systemImageId: " + selectedArtifact.getBuild().getEnvironment().getSystemImageId());
-                        }
-                        if (!buildConfiguration.getDependencies().isEmpty()) {
-                            iter.add("    dependencies:");
-                            for (var entry : buildConfiguration.getDependencies().values()) {
-                                iter.add("    - {{ \"" + versionName(entry.getName()) + "\" }}");
-                            }
-                        }
-                        break;
-                    }
-                }
+            try (var timer = timings.start("write.upstream-sources")) {
+                upstreamSourcesTemp = writeUpstreamSources(upstreamSources, results);
             }
-            Files.write(output, existing, StandardCharsets.UTF_8);
-
-        } catch (Exception e) {
+            try (var timer = timings.start("write.build-config")) {
+                buildConfigTemp = writeBuildConfig(buildConfig, results);
+            }
+            Files.move(upstreamSourcesTemp, upstreamSources, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(buildConfigTemp, buildConfig, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            deleteIfExists(upstreamSourcesTemp);
+            deleteIfExists(buildConfigTemp);
         }
     }
 
-    private String versionName(String name) {
-        int pos = name.lastIndexOf('-');
-        if (pos == -1) {
-            return name + "-version";
+    private Path writeBuildConfig(Path output, List<ImportResult> results) throws IOException {
+        var config = BuildConfigYaml.read(output);
+        for (var result : results) {
+            config.setVersion(result.versionName, result.tag);
+            if (config.putBuild(result.buildEntry)) {
+                print("Replaced existing build entry for " + result.versionName);
+            }
         }
-        return name.substring(0, pos) + "-version";
+        return config.writeTemporary(output);
     }
 
-    private String generateUpstreamSourcesYaml(Artifact selectedArtifact) {
+    private static Path writeUpstreamSources(Path output, List<ImportResult> results) throws IOException {
+        StringBuilder sb = new StringBuilder(Files.readString(output, StandardCharsets.UTF_8));
+        for (var result : results) {
+            sb.append(result.upstreamSource);
+        }
+        Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
         try {
-            String scm = selectedArtifact.getBuild().getScmRepository().getExternalUrl();
-            String inferredTag = selectedArtifact.getBuild().getScmTag().replaceAll("\\.redhat.*", "").replaceAll("-redhat.*", "");
-
-            String selectedCommit = "<< FIX ME >>";
-            String branch = "<< FIX ME >>";
-            String actualTag;
-
-            Path publicCheckout = Files.createTempDirectory("public-checkout");
-            List<Ref> possibleTags = new ArrayList<>();
-            List<String> possibleBranches = new ArrayList<>();
-            var publicGit = Git.cloneRepository().setDirectory(publicCheckout.toFile())
-                    .setURI(selectedArtifact.getBuild().getScmRepository().getExternalUrl())
-                    .call();
-            List<Ref> allTags = publicGit.tagList().call();
-            for (var ref : allTags) {
-                if (ref.getName().contains(inferredTag)) {
-                    possibleTags.add(ref);
-                }
-            }
-            if (possibleTags.size() == 0) {
-                possibleTags.addAll(allTags);
-            }
-            possibleTags.sort(Comparator.comparing(Object::toString));
-            if (possibleTags.size() == 1) {
-                Ref ref = possibleTags.get(0);
-                if (ref.getPeeledObjectId() != null) {
-                    selectedCommit = ref.getPeeledObjectId().name();
-                } else {
-                    selectedCommit = ref.getObjectId().name();
-                }
-                actualTag = ref.getName().replaceAll(REFS_TAGS, "");
-            } else {
-                print("Multiple potential tags found, please select the appropriate one: ");
-                var selectedRef = selectFromList(possibleTags, Ref::getName);
-                selectedCommit = selectedRef.getPeeledObjectId().name();
-                actualTag = selectedRef.getName().replaceAll(REFS_TAGS, "");
-            }
+            Files.writeString(temp, sb, StandardCharsets.UTF_8);
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
 
-            for (var b : publicGit.branchList().call()) {
-                if (publicGit.log().add(b.getObjectId()).addRange(ObjectId.fromString(selectedCommit), b.getObjectId())
-                        .call().iterator().hasNext()) {
-                    possibleBranches.add(b.getName());
-                }
-            }
-            if (possibleBranches.size() == 1) {
-                branch = possibleBranches.get(0);
-            } else {
-                print("Multiple potential tags found, please select the appropriate one: ");
-                branch = selectFromList(possibleBranches, Object::toString);
+    private static void deleteIfExists(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Failed to delete " + file + ": " + e);
             }
-            branch = branch.replaceAll(REFS_HEADS, "");
-
-            Path output = path.resolve("upstream_sources.yml");
-            Files.writeString(output, "- automerge: 'yes'\n" +
-                    "  branch: " + branch + "\n" +
-                    "  commit: " + selectedCommit + "\n" +
-                    "  dest_formats:\n" +
-                    "    branch:\n" +
-                    "      gen_source_repos: true\n" +
-                    "  update_policy:\n" +
-                    "  - tagged\n" +
-                    "  url: " + scm + "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
-            return actualTag;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
     }
 
-    private static void print(String s) {
+    /**
+     * A problem that stops the import before anything is written, such as a choice that cannot be made automatically.
+     * It is reported by {@link #run()}, which exits.
+     */
+    static class ImportException extends RuntimeException {
+
+        ImportException(String message) {
+            super(message);
+        }
+    }
+
+    static void print(String s) {
         System.out.println(GREEN + s + RESET);
     }
 
-    static <T> T selectFromList(List<T> list, Function<T, String> mapping) {
+    /**
+     * Asks the user to pick an entry from the list. This is synchronized so that prompts from imports that run
+     * concurrently do not get mixed up.
+     */
+    static synchronized <T> T selectFromList(String prompt, List<T> list, Function<T, String> mapping) {
         if (list.isEmpty()) {
             throw new RuntimeException("No results to choose from");
         }
+        print(prompt);
         Map<Integer, T> ids = new TreeMap<>();
         int count = 1;
         for (var obj : list) {
@@ -250,8 +626,12 @@ public class Import implements Runnable {
             count++;
         }
         for (; ; ) {
+            String line = readLine();
+            if (line == null) {
+                throw new RuntimeException("No selection made, the input was closed");
+            }
             try {
-                int selection = Integer.parseInt(System.console().readLine());
+                int selection = Integer.parseInt(line.trim());
                 T selected = ids.get(selection);
                 print("Selected: " + mapping.apply(selected));
                 return selected;
@@ -260,4 +640,21 @@ public class Import implements Runnable {
             }
         }
     }
+
+    /**
+     * Reads from the console if there is one, or from standard input so selections can be piped in by scripts.
+     */
+    private static String readLine() {
+        if (System.console() != null) {
+            return System.console().readLine();
+        }
+        try {
+            if (stdin == null) {
+                stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            }
+            return stdin.readLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
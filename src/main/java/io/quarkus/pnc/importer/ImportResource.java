@@ -0,0 +1,136 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+
+import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * REST access to the import, for use by automation through the {@code serve} command. Nothing is written, the
+ * entries are returned to the caller.
+ * <p>
+ * Where there is more than one possible upstream tag or branch the caller has to pick one with the {@code tag} or
+ * {@code branch} query parameter, otherwise the request fails with 409 Conflict and the possible values.
+ */
+@Path("/api")
+public class ImportResource {
+
+    @Inject
+    BuildImporter buildImporter;
+
+    @Inject
+    PncClient pncClient;
+
+    @GET
+    @Path("/artifacts")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<Candidate> search(@QueryParam("identifier") String identifier, @QueryParam("max") @DefaultValue("1000") int maxResults) {
+        if (identifier == null || identifier.isBlank()) {
+            throw new WebApplicationException("identifier is required", Response.Status.BAD_REQUEST);
+        }
+        return buildImporter.findCandidates(identifier, maxResults).stream()
+                .map(Candidate::new)
+                .collect(Collectors.toList());
+    }
+
+    @GET
+    @Path("/artifacts/{id}/build-entry")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String buildEntry(@PathParam("id") String id) {
+        BuildSource source = BuildSource.of(artifact(id));
+        var buildConfig = pncClient.getBuildConfiguration(source.buildConfigId).await().indefinitely();
+        String versionedName = BuildImporter.versionName(buildConfig.getName());
+        return String.join("\n", buildImporter.buildEntry(source, versionedName, buildConfig)) + "\n";
+    }
+
+    @GET
+    @Path("/artifacts/{id}/upstream-source")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String upstreamSource(@PathParam("id") String id, @QueryParam("tag") String tag, @QueryParam("branch") String branch,
+            @QueryParam("fromInternal") boolean fromInternal) {
+        BuildSource source = BuildSource.of(artifact(id));
+        return buildImporter.resolveUpstreamSource(source, false, fromInternal, new RequestedChooser(tag, branch)).toYaml();
+    }
+
+    private Artifact artifact(String id) {
+        Artifact artifact = pncClient.getArtifact(id).await().indefinitely();
+        if (artifact.getBuild() == null) {
+            throw new NotFoundException("Artifact " + id + " has no build");
+        }
+        return artifact;
+    }
+
+    /**
+     * Picks the option matching the tag or branch given in the request, depending on what is being chosen.
+     */
+    static class RequestedChooser implements BuildImporter.Chooser {
+
+        final String tag;
+        final String branch;
+
+        RequestedChooser(String tag, String branch) {
+            this.tag = tag;
+            this.branch = branch;
+        }
+
+        @Override
+        public <T> T choose(Choice choice, List<T> options, Function<T, String> mapping) {
+            String requested = choice.kind == Choice.Kind.TAG ? tag : choice.kind == Choice.Kind.BRANCH ? branch : null;
+            if (requested != null) {
+                for (var option : options) {
+                    String name = mapping.apply(option);
+                    name = choice.kind == Choice.Kind.TAG
+                            ? name.replaceAll(Import.REFS_TAGS, "")
+                            : name.replaceAll(Import.REFS_HEADS, "").replaceAll(UpstreamRepository.REFS_REMOTES_ORIGIN, "");
+                    if (requested.equals(name)) {
+                        return option;
+                    }
+                }
+            }
+            StringBuilder message = new StringBuilder(choice.prompt).append('\n');
+            for (var option : options) {
+                message.append(mapping.apply(option)).append('\n');
+            }
+            throw new WebApplicationException(Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(message.toString())
+                    .build());
+        }
+    }
+
+    /**
+     * The parts of an artifact that are needed to pick one to import.
+     */
+    public static class Candidate {
+        public final String id;
+        public final String identifier;
+        public final String buildId;
+        public final String buildConfigId;
+        public final String scmUrl;
+        public final String scmTag;
+        public final boolean preBuildSyncEnabled;
+
+        Candidate(Artifact artifact) {
+            var build = artifact.getBuild();
+            this.id = artifact.getId();
+            this.identifier = artifact.getIdentifier();
+            this.buildId = build.getId();
+            this.buildConfigId = build.getBuildConfigRevision() == null ? null : build.getBuildConfigRevision().getId();
+            this.scmUrl = build.getScmRepository() == null ? null : build.getScmRepository().getExternalUrl();
+            this.scmTag = build.getScmTag();
+            this.preBuildSyncEnabled = build.getScmRepository() != null && Boolean.TRUE.equals(build.getScmRepository().getPreBuildSyncEnabled());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.quarkus.pnc.importer;
+
+import java.util.List;
+
+/**
+ * The changes to the CPaaS config that are needed to import a single build. These are collected for every build in
+ * an import and then written out together.
+ */
+class ImportResult {
+
+    /**
+     * The name of the version variable, e.g. {@code quarkus-fs-util-version}.
+     */
+    final String versionName;
+
+    /**
+     * The upstream tag the version variable is set to.
+     */
+    final String tag;
+
+    /**
+     * The lines of the entry in the {@code builds:} section of {@code build-config.yaml}.
+     */
+    final List<String> buildEntry;
+
+    /**
+     * The entry to add to {@code upstream_sources.yml}.
+     */
+    final String upstreamSource;
+
+    ImportResult(String versionName, String tag, List<String> buildEntry, String upstreamSource) {
+        this.versionName = versionName;
+        this.tag = tag;
+        this.buildEntry = buildEntry;
+        this.upstreamSource = upstreamSource;
+    }
+}
@@ -0,0 +1,113 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactRef;
+import io.quarkus.pnc.importer.rest.ArtifactRevision;
+import io.quarkus.pnc.importer.rest.ArtifactRevisionRef;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfiguration;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRef;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRevision;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRevisionRef;
+import io.quarkus.pnc.importer.rest.BuildConfigurationWithLatestBuild;
+import io.quarkus.pnc.importer.rest.BuildPushResult;
+import io.quarkus.pnc.importer.rest.BuildPushResultRef;
+import io.quarkus.pnc.importer.rest.BuildRef;
+import io.quarkus.pnc.importer.rest.Environment;
+import io.quarkus.pnc.importer.rest.GroupBuild;
+import io.quarkus.pnc.importer.rest.GroupBuildRef;
+import io.quarkus.pnc.importer.rest.GroupConfiguration;
+import io.quarkus.pnc.importer.rest.GroupConfigurationRef;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.Product;
+import io.quarkus.pnc.importer.rest.ProductMilestone;
+import io.quarkus.pnc.importer.rest.ProductMilestoneCloseResult;
+import io.quarkus.pnc.importer.rest.ProductMilestoneCloseResultRef;
+import io.quarkus.pnc.importer.rest.ProductMilestoneRef;
+import io.quarkus.pnc.importer.rest.ProductRef;
+import io.quarkus.pnc.importer.rest.ProductRelease;
+import io.quarkus.pnc.importer.rest.ProductReleaseRef;
+import io.quarkus.pnc.importer.rest.ProductVersion;
+import io.quarkus.pnc.importer.rest.ProductVersionRef;
+import io.quarkus.pnc.importer.rest.Project;
+import io.quarkus.pnc.importer.rest.ProjectRef;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+import io.quarkus.pnc.importer.rest.TargetRepository;
+import io.quarkus.pnc.importer.rest.User;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Reflection registrations for the native executable. The PNC DTOs are deserialized through their Lombok builders,
+ * which are only referenced from annotations, and are also written back to JSON by the response cache.
+ */
+@RegisterForReflection(targets = {
+        Artifact.class,
+        Artifact.Builder.class,
+        ArtifactRef.class,
+        ArtifactRef.Builder.class,
+        ArtifactRevision.class,
+        ArtifactRevision.Builder.class,
+        ArtifactRevisionRef.class,
+        ArtifactRevisionRef.Builder.class,
+        Build.class,
+        Build.Builder.class,
+        BuildConfiguration.class,
+        BuildConfiguration.Builder.class,
+        BuildConfigurationRef.class,
+        BuildConfigurationRef.Builder.class,
+        BuildConfigurationRevision.class,
+        BuildConfigurationRevision.Builder.class,
+        BuildConfigurationRevisionRef.class,
+        BuildConfigurationRevisionRef.Builder.class,
+        BuildConfigurationWithLatestBuild.class,
+        BuildConfigurationWithLatestBuild.Builder.class,
+        BuildPushResult.class,
+        BuildPushResult.Builder.class,
+        BuildPushResultRef.class,
+        BuildPushResultRef.Builder.class,
+        BuildRef.class,
+        BuildRef.Builder.class,
+        Environment.class,
+        Environment.Builder.class,
+        GroupBuild.class,
+        GroupBuild.Builder.class,
+        GroupBuildRef.class,
+        GroupBuildRef.Builder.class,
+        GroupConfiguration.class,
+        GroupConfiguration.Builder.class,
+        GroupConfigurationRef.class,
+        GroupConfigurationRef.Builder.class,
+        Product.class,
+        Product.Builder.class,
+        ProductMilestone.class,
+        ProductMilestone.Builder.class,
+        ProductMilestoneCloseResult.class,
+        ProductMilestoneCloseResult.Builder.class,
+        ProductMilestoneCloseResultRef.class,
+        ProductMilestoneCloseResultRef.Builder.class,
+        ProductMilestoneRef.class,
+        ProductMilestoneRef.Builder.class,
+        ProductRef.class,
+        ProductRef.Builder.class,
+        ProductRelease.class,
+        ProductRelease.Builder.class,
+        ProductReleaseRef.class,
+        ProductReleaseRef.Builder.class,
+        ProductVersion.class,
+        ProductVersion.Builder.class,
+        ProductVersionRef.class,
+        ProductVersionRef.Builder.class,
+        Project.class,
+        Project.Builder.class,
+        ProjectRef.class,
+        ProjectRef.Builder.class,
+        SCMRepository.class,
+        SCMRepository.Builder.class,
+        TargetRepository.class,
+        TargetRepository.Builder.class,
+        User.class,
+        User.Builder.class,
+        Page.class
+})
+public class NativeReflection {
+}
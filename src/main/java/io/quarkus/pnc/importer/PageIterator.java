@@ -0,0 +1,89 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Page;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.IntFunction;
+
+/**
+ * Iterates over all the results of a paged PNC query.
+ * <p>
+ * The next page is requested as soon as the current one arrives, so the network round trip overlaps
+ * with whatever the caller does with the current page. At most two pages are held in memory at any time, and iteration
+ * stops once {@code maxResults} entries have been returned.
+ */
+public class PageIterator<T> implements Iterator<T> {
+
+    private final IntFunction<? extends CompletionStage<Page<T>>> fetcher;
+    private final int maxResults;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<Page<T>> next;
+    private boolean morePages;
+    private int requested;
+    private int returned;
+
+    /**
+     * @param fetcher    function that starts fetching the page with the given index
+     * @param maxResults the maximum number of results to return
+     */
+    public PageIterator(IntFunction<? extends CompletionStage<Page<T>>> fetcher, int maxResults) {
+        this.fetcher = fetcher;
+        this.maxResults = maxResults;
+        this.next = fetch(0);
+    }
+
+    /**
+     * @return <code>true</code> if the query had more results than the configured maximum
+     */
+    public boolean isTruncated() {
+        return returned >= maxResults && (current.hasNext() || morePages);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (returned >= maxResults) {
+            return false;
+        }
+        while (!current.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+            Page<T> page;
+            try {
+                page = next.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+            requested += page.getContent().size();
+            int nextIndex = page.getPageIndex() + 1;
+            morePages = page.getTotalPages() < 0
+                    ? page.getContent().size() == page.getPageSize() && !page.getContent().isEmpty()
+                    : nextIndex < page.getTotalPages();
+            next = morePages && requested < maxResults ? fetch(nextIndex) : null;
+            current = page.getContent().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        returned++;
+        return current.next();
+    }
+
+    private CompletableFuture<Page<T>> fetch(int pageIndex) {
+        return fetcher.apply(pageIndex).toCompletableFuture();
+    }
+}
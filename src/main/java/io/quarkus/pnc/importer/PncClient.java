@@ -0,0 +1,147 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactEndpoint;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfiguration;
+import io.quarkus.pnc.importer.rest.BuildConfigurationEndpoint;
+import io.quarkus.pnc.importer.rest.GroupConfiguration;
+import io.quarkus.pnc.importer.rest.GroupConfigurationEndpoint;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.PageParameters;
+import io.quarkus.pnc.importer.rest.ProductVersion;
+import io.quarkus.pnc.importer.rest.ProductVersionEndpoint;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Access to the PNC REST API. All calls go through the {@link PncResponseCache}.
+ * <p>
+ * Each call to PNC fails if there is no response within the timeout for its endpoint
+ * ({@code importer.pnc.artifacts.timeout} for artifacts, {@code importer.pnc.build-configs.timeout} for build configs,
+ * group configs and product versions). Timeouts, connection
+ * failures and server errors are retried up to {@code importer.pnc.retries} times, with an exponential backoff
+ * starting at {@code importer.pnc.retry-backoff}.
+ */
+@ApplicationScoped
+public class PncClient {
+
+    private static final TypeReference<Page<Artifact>> ARTIFACT_PAGE = new TypeReference<>() {
+    };
+    private static final TypeReference<Artifact> ARTIFACT = new TypeReference<>() {
+    };
+    private static final TypeReference<Page<Build>> BUILD_PAGE = new TypeReference<>() {
+    };
+    private static final TypeReference<BuildConfiguration> BUILD_CONFIGURATION = new TypeReference<>() {
+    };
+    private static final TypeReference<GroupConfiguration> GROUP_CONFIGURATION = new TypeReference<>() {
+    };
+    private static final TypeReference<ProductVersion> PRODUCT_VERSION = new TypeReference<>() {
+    };
+
+    @Inject
+    @RestClient
+    ArtifactEndpoint artifactEndpoint;
+
+    @Inject
+    @RestClient
+    BuildConfigurationEndpoint buildConfigurationEndpoint;
+
+    @Inject
+    @RestClient
+    GroupConfigurationEndpoint groupConfigurationEndpoint;
+
+    @Inject
+    @RestClient
+    ProductVersionEndpoint productVersionEndpoint;
+
+    @Inject
+    PncResponseCache cache;
+
+    @ConfigProperty(name = "importer.pnc.artifacts.timeout", defaultValue = "60S")
+    Duration artifactsTimeout;
+
+    @ConfigProperty(name = "importer.pnc.build-configs.timeout", defaultValue = "30S")
+    Duration buildConfigsTimeout;
+
+    @ConfigProperty(name = "importer.pnc.retries", defaultValue = "3")
+    int retries;
+
+    @ConfigProperty(name = "importer.pnc.retry-backoff", defaultValue = "1S")
+    Duration retryBackoff;
+
+    public Uni<Page<Artifact>> getArtifacts(PageParameters pageParams, String sha256, String md5, String sha1) {
+        String key = "artifacts?q=" + pageParams.getQ() + "&sort=" + pageParams.getSort()
+                + "&pageIndex=" + pageParams.getPageIndex() + "&pageSize=" + pageParams.getPageSize()
+                + "&sha256=" + sha256 + "&md5=" + md5 + "&sha1=" + sha1;
+        return cache.get(key, ARTIFACT_PAGE, () -> call(() -> artifactEndpoint.getAllAsync(pageParams, sha256, md5, sha1), artifactsTimeout));
+    }
+
+    public Uni<Artifact> getArtifact(String id) {
+        return cache.get("artifacts/" + id, ARTIFACT, () -> call(() -> artifactEndpoint.getSpecificAsync(id), artifactsTimeout));
+    }
+
+    public Uni<BuildConfiguration> getBuildConfiguration(String id) {
+        return cache.get("build-configs/" + id, BUILD_CONFIGURATION, () -> call(() -> buildConfigurationEndpoint.getSpecificAsync(id), buildConfigsTimeout));
+    }
+
+    /**
+     * The newest successful, non temporary build of the build config. A build config only knows the branch it
+     * builds from, the tag that was built comes from its builds.
+     *
+     * @return the build, or null if the build config has never been built successfully
+     */
+    public Uni<Build> getLatestSuccessfulBuild(String buildConfigId) {
+        PageParameters pageParams = new PageParameters();
+        pageParams.setPageIndex(0);
+        pageParams.setPageSize(1);
+        Rsql.eq("status", "SUCCESS").and(Rsql.eq("temporaryBuild", "false")).applyTo(pageParams);
+        pageParams.setSort("sort=desc=submitTime");
+        String key = "build-configs/" + buildConfigId + "/builds?q=" + pageParams.getQ() + "&sort=" + pageParams.getSort()
+                + "&pageIndex=0&pageSize=1";
+        return cache.get(key, BUILD_PAGE, () -> call(() -> buildConfigurationEndpoint.getBuildsAsync(buildConfigId, pageParams), buildConfigsTimeout))
+                .onItem().transform(page -> page.getContent() == null || page.getContent().isEmpty() ? null : page.getContent().iterator().next());
+    }
+
+    public Uni<GroupConfiguration> getGroupConfiguration(String id) {
+        return cache.get("group-configs/" + id, GROUP_CONFIGURATION, () -> call(() -> groupConfigurationEndpoint.getSpecificAsync(id), buildConfigsTimeout));
+    }
+
+    public Uni<ProductVersion> getProductVersion(String id) {
+        return cache.get("product-versions/" + id, PRODUCT_VERSION, () -> call(() -> productVersionEndpoint.getSpecificAsync(id), buildConfigsTimeout));
+    }
+
+    public void disableCache() {
+        cache.disable();
+    }
+
+    <T> Uni<T> call(Supplier<Uni<T>> request, Duration timeout) {
+        Uni<T> result = Uni.createFrom().deferred(request::get)
+                .ifNoItem().after(timeout).fail();
+        if (retries <= 0) {
+            return result;
+        }
+        return result.onFailure(PncClient::retryable).retry()
+                .withBackOff(retryBackoff, retryBackoff.multipliedBy(16))
+                .atMost(retries);
+    }
+
+    /**
+     * Client errors such as a missing build config will fail the same way again, anything else may not.
+     */
+    static boolean retryable(Throwable failure) {
+        if (failure instanceof WebApplicationException) {
+            int status = ((WebApplicationException) failure).getResponse().getStatus();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package io.quarkus.pnc.importer;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Asks PNC for gzip compressed responses, and decompresses them before they are deserialized. Search pages are
+ * large and very repetitive JSON, so they compress to a fraction of their size.
+ */
+public class PncCompressionFilter implements ClientRequestFilter, ReaderInterceptor {
+
+    static final String GZIP = "gzip";
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, GZIP);
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        if (isGzip(context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+            context.setInputStream(new GZIPInputStream(context.getInputStream()));
+        }
+        return context.proceed();
+    }
+
+    static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(GZIP);
+    }
+}
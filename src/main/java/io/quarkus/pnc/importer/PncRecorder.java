@@ -0,0 +1,63 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Records the raw PNC responses to {@code importer.pnc.record.directory}, so they can be served again by
+ * {@link ReplayServer} and an import can be repeated without access to PNC.
+ * <p>
+ * Responses are stored by their path and query relative to the PNC URL, one file per request.
+ */
+@ApplicationScoped
+public class PncRecorder {
+
+    @ConfigProperty(name = "importer.pnc.record.directory")
+    Optional<String> directory;
+
+    @ConfigProperty(name = "quarkus.rest-client.pnc.url")
+    Optional<String> pncUrl;
+
+    /**
+     * Starts recording to the given directory, instead of the configured one.
+     */
+    public void record(Path directory) {
+        this.directory = Optional.of(directory.toString());
+    }
+
+    public boolean isRecording() {
+        return directory.isPresent();
+    }
+
+    void save(URI uri, byte[] body) {
+        if (directory.isEmpty()) {
+            return;
+        }
+        String basePath = pncUrl.map(u -> URI.create(u).getRawPath()).orElse("");
+        String path = uri.getRawPath();
+        if (basePath != null && !basePath.equals("/") && path.startsWith(basePath)) {
+            path = path.substring(basePath.length());
+        }
+        String key = key(path, uri.getRawQuery());
+        try {
+            Path dir = Path.of(directory.get());
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, "response", ".tmp");
+            Files.write(temp, body);
+            Files.move(temp, dir.resolve(PncResponseCache.fileName(key)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to record PNC response for " + key + ": " + e);
+        }
+    }
+
+    static String key(String path, String query) {
+        return query == null ? path : path + "?" + query;
+    }
+}
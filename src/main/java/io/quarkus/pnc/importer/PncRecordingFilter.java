@@ -0,0 +1,34 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.arc.Arc;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Passes successful PNC responses to the {@link PncRecorder} before they are deserialized. Compressed responses are
+ * recorded decompressed, so the replay server can serve them to any client.
+ */
+public class PncRecordingFilter implements ClientResponseFilter {
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        PncRecorder recorder = Arc.container().instance(PncRecorder.class).get();
+        if (!recorder.isRecording() || responseContext.getStatus() != 200 || !responseContext.hasEntity()) {
+            return;
+        }
+        byte[] body = responseContext.getEntityStream().readAllBytes();
+        responseContext.setEntityStream(new ByteArrayInputStream(body));
+        if (PncCompressionFilter.isGzip(responseContext.getHeaderString(HttpHeaders.CONTENT_ENCODING))) {
+            try (var in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = in.readAllBytes();
+            }
+        }
+        recorder.save(requestContext.getUri(), body);
+    }
+}
@@ -0,0 +1,246 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache for PNC responses.
+ * <p>
+ * Responses are kept in memory for the life of the process, and written to {@code importer.pnc.cache.directory} so
+ * later runs can reuse them. Entries expire after {@code importer.pnc.cache.ttl}. The in-memory cache holds at most
+ * {@code importer.pnc.cache.max-entries} responses, and once the on-disk cache grows past
+ * {@code importer.pnc.cache.max-size} the least recently used responses are removed.
+ * <p>
+ * Concurrent requests for the same key share a single call to PNC. Responses arrive on the event loop, so they are
+ * written to disk on a worker thread.
+ */
+@ApplicationScoped
+public class PncResponseCache {
+
+    @ConfigProperty(name = "importer.pnc.cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "importer.pnc.cache.ttl", defaultValue = "1H")
+    Duration ttl;
+
+    @ConfigProperty(name = "importer.pnc.cache.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    @ConfigProperty(name = "importer.pnc.cache.directory")
+    Optional<String> directory;
+
+    @ConfigProperty(name = "importer.pnc.cache.max-size", defaultValue = "100M")
+    MemorySize maxSize;
+
+    @Inject
+    ObjectMapper mapper;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Where responses are written to disk, the worker pool unless a test replaces it.
+     */
+    Executor writer;
+
+    /**
+     * The time entries are created and expire by, the system clock unless a test replaces it.
+     */
+    Clock clock = Clock.systemUTC();
+
+    private long diskSize = -1;
+
+    /**
+     * Turns the cache off for the rest of this run, every request goes to PNC and nothing is stored.
+     */
+    public void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Returns the cached response for the given key, or calls the loader to get it from PNC.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Uni<T> get(String key, TypeReference<T> type, Supplier<Uni<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CompletableFuture<Object> result;
+        boolean load = false;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null || entry.expired(clock.millis(), ttl)) {
+                entry = new Entry(clock.millis(), new CompletableFuture<>());
+                entries.put(key, entry);
+                load = true;
+            }
+            result = entry.value;
+        }
+        if (load) {
+            T stored = read(key, type);
+            if (stored != null) {
+                result.complete(stored);
+            } else {
+                loader.get().subscribe().with(value -> CompletableFuture.runAsync(() -> write(key, value), writer())
+                        .whenComplete((ignored, writeFailure) -> result.complete(value)), failure -> {
+                    synchronized (entries) {
+                        entries.remove(key);
+                    }
+                    result.completeExceptionally(failure);
+                });
+            }
+        }
+        return Uni.createFrom().completionStage(() -> (CompletableFuture<T>) (CompletableFuture<?>) result);
+    }
+
+    private <T> T read(String key, TypeReference<T> type) {
+        Path file = file(key);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JsonNode node = mapper.readTree(file.toFile());
+            if (!key.equals(node.path("key").asText()) || clock.millis() - node.path("created").asLong() > ttl.toMillis()) {
+                return null;
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(clock.millis()));
+            return mapper.readerFor(mapper.getTypeFactory().constructType(type)).readValue(node.get("value"));
+        } catch (IOException e) {
+            //a corrupt or incompatible entry, just get it again
+            return null;
+        }
+    }
+
+    private void write(String key, Object value) {
+        Path file = file(key);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            ObjectNode node = mapper.createObjectNode();
+            node.put("key", key);
+            node.put("created", clock.millis());
+            node.set("value", mapper.valueToTree(value));
+            Path temp = Files.createTempFile(file.getParent(), "entry", ".tmp");
+            Files.write(temp, mapper.writeValueAsBytes(node));
+            replace(temp, file);
+        } catch (IOException e) {
+            System.err.println("Failed to write PNC cache entry: " + e);
+        }
+    }
+
+    /**
+     * Moves a new entry into place. An entry that expired is replaced by a new one for the same key, and only the
+     * difference in size counts towards the size of the cache.
+     */
+    private synchronized void replace(Path temp, Path file) throws IOException {
+        long replaced = Files.isRegularFile(file) ? Files.size(file) : 0;
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict(file.getParent(), Files.size(file) - replaced);
+    }
+
+    private Executor writer() {
+        return writer != null ? writer : Infrastructure.getDefaultWorkerPool();
+    }
+
+    private synchronized void evict(Path dir, long added) throws IOException {
+        if (diskSize < 0) {
+            diskSize = 0;
+            for (var file : list(dir)) {
+                diskSize += Files.size(file);
+            }
+        } else {
+            diskSize += added;
+        }
+        if (diskSize <= maxSize.asLongValue()) {
+            return;
+        }
+        List<Path> files = list(dir);
+        files.sort(Comparator.comparing(f -> f.toFile().lastModified()));
+        for (var file : files) {
+            if (diskSize <= maxSize.asLongValue() * 9 / 10) {
+                break;
+            }
+            long size = Files.size(file);
+            Files.deleteIfExists(file);
+            diskSize -= size;
+        }
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".json")).collect(Collectors.toList());
+        }
+    }
+
+    private Path file(String key) {
+        if (directory.isEmpty()) {
+            return null;
+        }
+        return Path.of(directory.get()).resolve(fileName(key));
+    }
+
+    /**
+     * The name of the file a response is stored in, which is derived from the key as keys are not valid file names.
+     */
+    static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.append(".json").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class Entry {
+        final long created;
+        final CompletableFuture<Object> value;
+
+        Entry(long created, CompletableFuture<Object> value) {
+            this.created = created;
+            this.value = value;
+        }
+
+        boolean expired(long now, Duration ttl) {
+            return now - created > ttl.toMillis();
+        }
+    }
+}
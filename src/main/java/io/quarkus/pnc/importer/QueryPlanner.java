@@ -0,0 +1,62 @@
+package io.quarkus.pnc.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Works out the RSQL queries for what the user asked to import, from the narrowest to the widest.
+ * <p>
+ * A substring match on the identifier can't use an index on PNC's side, so when the input looks like Maven
+ * coordinates a cheaper query is tried first:
+ * <ul>
+ * <li>{@code groupId:artifactId:pom:version} or {@code groupId:artifactId:version} is an exact match on the pom</li>
+ * <li>{@code groupId:artifactId} is a prefix match on the poms of all versions</li>
+ * </ul>
+ * Anything else is searched for anywhere in the identifier, which is also the last query for coordinates, in case
+ * they only match part of an identifier.
+ */
+final class QueryPlanner {
+
+    private static final Pattern SEGMENT = Pattern.compile("[A-Za-z0-9._\\-]+");
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * The queries to run in order, moving on to the next one only if a query finds nothing.
+     */
+    static List<Rsql> plan(String input) {
+        List<Rsql> queries = new ArrayList<>();
+        String[] parts = input.split(":", -1);
+        if (isCoordinates(parts)) {
+            if (parts.length == 4 && parts[2].equals("pom")) {
+                queries.add(withBuild(Rsql.eq("identifier", input)));
+                queries.add(withBuild(Rsql.like("identifier", parts[0] + ":" + parts[1] + ":pom:%")));
+            } else if (parts.length == 3) {
+                queries.add(withBuild(Rsql.eq("identifier", parts[0] + ":" + parts[1] + ":pom:" + parts[2])));
+                queries.add(withBuild(Rsql.like("identifier", parts[0] + ":" + parts[1] + ":pom:%")));
+            } else if (parts.length == 2) {
+                queries.add(withBuild(Rsql.like("identifier", input + ":pom:%")));
+            }
+        }
+        queries.add(BuildImporter.candidateQuery(input));
+        return queries;
+    }
+
+    private static boolean isCoordinates(String[] parts) {
+        if (parts.length < 2 || parts.length > 4) {
+            return false;
+        }
+        for (var part : parts) {
+            if (!SEGMENT.matcher(part).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Rsql withBuild(Rsql query) {
+        return query.and(Rsql.isNull("build", false));
+    }
+}
@@ -0,0 +1,68 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Works out which branches contain a commit in a single walk of the history.
+ * <p>
+ * The walk starts from all the branch heads at once, and never goes below the parents of the commit: nothing
+ * reachable from them can have the commit as an ancestor. Commits are visited parents first, so a commit contains the
+ * target if it is the target or one of its parents does, which is a single flag check per parent.
+ */
+final class ReachabilityIndex {
+
+    private ReachabilityIndex() {
+    }
+
+    /**
+     * @return the branches whose head is the given commit or has it as an ancestor, in the order they were passed in
+     */
+    static List<Ref> branchesContaining(Repository repository, AnyObjectId commit, Collection<Ref> branches) throws IOException {
+        List<Ref> result = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit target = walk.parseCommit(commit);
+            RevFlag contains = walk.newFlag("contains");
+            walk.sort(RevSort.TOPO, true);
+            walk.sort(RevSort.REVERSE, true);
+            List<RevCommit> heads = new ArrayList<>(branches.size());
+            for (var branch : branches) {
+                RevCommit head = walk.parseCommit(branch.getObjectId());
+                heads.add(head);
+                walk.markStart(head);
+            }
+            for (var parent : target.getParents()) {
+                walk.markUninteresting(walk.parseCommit(parent));
+            }
+            for (RevCommit c = walk.next(); c != null; c = walk.next()) {
+                if (c.equals(target)) {
+                    c.add(contains);
+                    continue;
+                }
+                for (var parent : c.getParents()) {
+                    if (parent.has(contains)) {
+                        c.add(contains);
+                        break;
+                    }
+                }
+            }
+            int i = 0;
+            for (var branch : branches) {
+                if (heads.get(i++).has(contains)) {
+                    result.add(branch);
+                }
+            }
+        }
+        return result;
+    }
+}
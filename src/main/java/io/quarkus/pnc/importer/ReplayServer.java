@@ -0,0 +1,92 @@
+package io.quarkus.pnc.importer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.runtime.Quarkus;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves PNC responses recorded with {@code import --record}, so an import can be run against it instead of PNC.
+ * Requests that were not recorded get a 404. Responses are compressed for clients that accept gzip, as PNC does.
+ */
+@CommandLine.Command(name = "replay-server", description = "Serve recorded PNC responses")
+public class ReplayServer implements Runnable {
+
+    @CommandLine.Option(names = {"-d", "--directory"}, required = true, description = "Directory the responses were recorded to")
+    Path directory;
+
+    @CommandLine.Option(names = "--port", defaultValue = "8090", description = "Port to listen on")
+    int port;
+
+    @Override
+    public void run() {
+        if (!Files.isDirectory(directory)) {
+            System.err.println("Recording directory " + directory + " does not exist");
+            System.exit(1);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HttpServer server;
+        try {
+            server = start(executor);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        Import.print("Replaying PNC responses from " + directory + ", run the import with -Dpnc.url=http://localhost:" + server.getAddress().getPort());
+        try {
+            Quarkus.waitForExit();
+        } finally {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts serving the recorded responses, without waiting for the application to exit.
+     */
+    HttpServer start(Executor executor) throws IOException {
+        //without this small responses on a kept alive connection wait for delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return server;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String key = PncRecorder.key(exchange.getRequestURI().getRawPath(), exchange.getRequestURI().getRawQuery());
+            Path file = directory.resolve(PncResponseCache.fileName(key));
+            if (!exchange.getRequestMethod().equals("GET") || !Files.isRegularFile(file)) {
+                System.err.println("No recorded response for " + exchange.getRequestMethod() + " " + key);
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = Files.readAllBytes(file);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains(PncCompressionFilter.GZIP)) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (var out = new GZIPOutputStream(compressed)) {
+                    out.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", PncCompressionFilter.GZIP);
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.PageParameters;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Builder for the RSQL queries understood by the PNC REST API.
+ * <p>
+ * Instances are immutable, {@link #and(Rsql)} and {@link #or(Rsql)} return new queries.
+ */
+public final class Rsql {
+
+    private final String expression;
+    private final boolean disjunction;
+
+    private Rsql(String expression, boolean disjunction) {
+        this.expression = expression;
+        this.disjunction = disjunction;
+    }
+
+    public static Rsql eq(String field, String value) {
+        return new Rsql(field + "==" + quote(value), false);
+    }
+
+    public static Rsql like(String field, String pattern) {
+        return new Rsql(field + "=like=" + quote(pattern), false);
+    }
+
+    /**
+     * Matches entries where the given field is any of the values.
+     */
+    public static Rsql in(String field, Collection<String> values) {
+        return new Rsql(field + "=in=(" + values.stream().map(Rsql::quote).collect(Collectors.joining(",")) + ")", false);
+    }
+
+    /**
+     * Matches entries where the given field is greater than the value, such as timestamps after a given instant.
+     */
+    public static Rsql gt(String field, String value) {
+        return new Rsql(field + "=gt=" + quote(value), false);
+    }
+
+    /**
+     * Matches entries where the given field is greater than or equal to the value.
+     */
+    public static Rsql ge(String field, String value) {
+        return new Rsql(field + "=ge=" + quote(value), false);
+    }
+
+    /**
+     * Matches entries where the given field is (or is not) null. This is how a relation such as
+     * {@code build} is tested for existence.
+     */
+    public static Rsql isNull(String field, boolean isNull) {
+        return new Rsql(field + "=isnull=" + isNull, false);
+    }
+
+    public Rsql and(Rsql other) {
+        return new Rsql(group(this) + ";" + group(other), false);
+    }
+
+    public Rsql or(Rsql other) {
+        return new Rsql(expression + "," + other.expression, true);
+    }
+
+    /**
+     * Sets this query as the {@code q} parameter of the given page parameters.
+     */
+    public PageParameters applyTo(PageParameters pageParameters) {
+        pageParameters.setQ(expression);
+        return pageParameters;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static String group(Rsql rsql) {
+        return rsql.disjunction ? "(" + rsql.expression + ")" : rsql.expression;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,237 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Makes the choices of an import without asking, so imports can run unattended.
+ * <p>
+ * Rules from a rules file are applied first, each line has the kind of choice ({@code artifact}, {@code tag} or
+ * {@code branch}), a regular expression for what the choice is for (the searched identifier, or the repository URL)
+ * and a regular expression the chosen value has to match:
+ *
+ * <pre>
+ * branch .*quarkus-http.* 4\.1\.x
+ * tag    .*               .*\.Final
+ * </pre>
+ * <p>
+ * All rules that match the choice are applied in order, each narrowing down the options, and a rule that matches
+ * none of the options is ignored. In automatic mode the remaining options are then decided by kind: the artifact with
+ * the newest build, the tag that is exactly the one inferred from the PNC build, and the release branch of the
+ * selected tag (the most specific one whose version the tag's version starts with, so {@code 4.1.x} for
+ * {@code 4.1.7}), or else the release branch with the highest version, or else the main branch. If there is still
+ * more than one option the user is asked, or the import fails in automatic mode.
+ */
+public class SelectionPolicy implements BuildImporter.Chooser {
+
+    private static final Pattern VERSION = Pattern.compile("(\\d+(?:\\.\\d+)*)(?:\\.x)?");
+    private static final Pattern TAG_VERSION = Pattern.compile("\\d+(?:\\.\\d+)*");
+    private static final List<String> MAIN_BRANCHES = List.of("main", "master");
+
+    private final boolean auto;
+    private final List<Rule> rules;
+
+    SelectionPolicy(boolean auto, List<Rule> rules) {
+        this.auto = auto;
+        this.rules = rules;
+    }
+
+    public static SelectionPolicy create(boolean auto, Path rulesFile) {
+        List<Rule> rules = new ArrayList<>();
+        if (rulesFile != null) {
+            try {
+                for (var line : Files.readAllLines(rulesFile, StandardCharsets.UTF_8)) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] parts = line.split("\\s+");
+                    if (parts.length != 3) {
+                        throw new Import.ImportException("Invalid rule '" + line + "' in " + rulesFile + ", expected <kind> <subject> <value>");
+                    }
+                    try {
+                        rules.add(new Rule(Choice.Kind.valueOf(parts[0].toUpperCase(Locale.ROOT)), Pattern.compile(parts[1]), Pattern.compile(parts[2])));
+                    } catch (IllegalArgumentException e) {
+                        //an unknown kind or an invalid regular expression
+                        throw new Import.ImportException("Invalid rule '" + line + "' in " + rulesFile + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                throw new Import.ImportException("Could not read rules file " + rulesFile + ": " + e);
+            }
+        }
+        return new SelectionPolicy(auto, rules);
+    }
+
+    @Override
+    public <T> T choose(Choice choice, List<T> options, Function<T, String> mapping) {
+        List<T> remaining = new ArrayList<>(options);
+        for (var rule : rules) {
+            if (rule.kind == choice.kind && rule.subject.matcher(choice.subject).matches()) {
+                List<T> matching = new ArrayList<>();
+                for (var option : remaining) {
+                    if (rule.value.matcher(shortName(mapping.apply(option))).matches()) {
+                        matching.add(option);
+                    }
+                }
+                if (!matching.isEmpty()) {
+                    remaining = matching;
+                }
+            }
+        }
+        if (auto && remaining.size() > 1) {
+            remaining = decide(choice, remaining, mapping);
+        }
+        if (remaining.size() == 1) {
+            T selected = remaining.get(0);
+            Import.print("Selected " + mapping.apply(selected) + " for " + choice.subject);
+            return selected;
+        }
+        if (auto) {
+            StringBuilder message = new StringBuilder("Could not choose automatically for " + choice.subject + ", add a rule for one of:");
+            for (var option : remaining) {
+                message.append("\n  ").append(mapping.apply(option));
+            }
+            throw new Import.ImportException(message.toString());
+        }
+        return Import.selectFromList(choice.prompt, remaining, mapping);
+    }
+
+    private <T> List<T> decide(Choice choice, List<T> options, Function<T, String> mapping) {
+        switch (choice.kind) {
+            case ARTIFACT:
+                return newestBuild(options);
+            case TAG:
+                for (var option : options) {
+                    if (shortName(mapping.apply(option)).equals(choice.hint)) {
+                        return List.of(option);
+                    }
+                }
+                return options;
+            case BRANCH:
+                return releaseBranch(options, mapping, choice.hint);
+            default:
+                return options;
+        }
+    }
+
+    private static <T> List<T> newestBuild(List<T> options) {
+        T newest = null;
+        Instant newestTime = null;
+        for (var option : options) {
+            if (!(option instanceof Artifact)) {
+                return options;
+            }
+            var build = ((Artifact) option).getBuild();
+            Instant time = build == null ? null : build.getStartTime();
+            if (newest == null || time != null && (newestTime == null || time.isAfter(newestTime))) {
+                newest = option;
+                newestTime = time;
+            }
+        }
+        return List.of(newest);
+    }
+
+    /**
+     * @param tag the selected tag, the branch it was released from is preferred
+     */
+    private static <T> List<T> releaseBranch(List<T> options, Function<T, String> mapping, String tag) {
+        List<String> tagVersion = null;
+        if (tag != null) {
+            Matcher m = TAG_VERSION.matcher(tag);
+            if (m.find()) {
+                tagVersion = parseVersion(m.group());
+            }
+        }
+        T release = null;
+        List<String> releaseVersion = null;
+        T highest = null;
+        List<String> highestVersion = null;
+        T main = null;
+        for (var option : options) {
+            String name = shortName(mapping.apply(option));
+            Matcher m = VERSION.matcher(name);
+            if (m.matches()) {
+                List<String> version = parseVersion(m.group(1));
+                if (tagVersion != null && isPrefix(version, tagVersion)
+                        && (releaseVersion == null || version.size() > releaseVersion.size())) {
+                    release = option;
+                    releaseVersion = version;
+                }
+                if (highestVersion == null || compare(version, highestVersion) > 0) {
+                    highest = option;
+                    highestVersion = version;
+                }
+            } else if (MAIN_BRANCHES.contains(name)) {
+                main = option;
+            }
+        }
+        if (release != null) {
+            return List.of(release);
+        }
+        if (highest != null) {
+            return List.of(highest);
+        }
+        if (main != null) {
+            return List.of(main);
+        }
+        return options;
+    }
+
+    /**
+     * Version numbers are kept as digit strings without leading zeros, as branch names such as dates can have more
+     * digits than fit in a long.
+     */
+    private static List<String> parseVersion(String version) {
+        List<String> result = new ArrayList<>();
+        for (var part : version.split("\\.")) {
+            result.add(part.replaceFirst("^0+(?=\\d)", ""));
+        }
+        return result;
+    }
+
+    private static boolean isPrefix(List<String> prefix, List<String> version) {
+        return prefix.size() <= version.size() && prefix.equals(version.subList(0, prefix.size()));
+    }
+
+    static int compare(List<String> a, List<String> b) {
+        for (int i = 0; i < Math.max(a.size(), b.size()); ++i) {
+            String x = i < a.size() ? a.get(i) : "0";
+            String y = i < b.size() ? b.get(i) : "0";
+            int c = x.length() != y.length() ? Integer.compare(x.length(), y.length()) : x.compareTo(y);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static String shortName(String name) {
+        return name.replaceAll(Import.REFS_TAGS, "")
+                .replaceAll(Import.REFS_HEADS, "")
+                .replaceAll(UpstreamRepository.REFS_REMOTES_ORIGIN, "");
+    }
+
+    static final class Rule {
+        final Choice.Kind kind;
+        final Pattern subject;
+        final Pattern value;
+
+        Rule(Choice.Kind kind, Pattern subject, Pattern value) {
+            this.kind = kind;
+            this.subject = subject;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.runtime.Quarkus;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import picocli.CommandLine;
+
+/**
+ * Keeps the importer running so that {@link ImportResource} can be used, with the PNC connections and response
+ * cache and the upstream Git mirrors reused between requests.
+ */
+@CommandLine.Command(name = "serve", description = "Run the importer as a service, see ImportResource for the endpoints")
+public class Serve implements Runnable {
+
+    @ConfigProperty(name = "quarkus.http.port", defaultValue = "8080")
+    int port;
+
+    @Override
+    public void run() {
+        Import.print("Importer listening on http://localhost:" + port + "/api");
+        Quarkus.waitForExit();
+    }
+}
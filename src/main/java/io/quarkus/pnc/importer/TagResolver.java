@@ -0,0 +1,128 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Resolves tags to the commits they point at, for both annotated and lightweight tags.
+ * <p>
+ * Most tags need no object lookup at all: tags listed from the remote are already peeled by the server, and
+ * packed refs usually carry their peeled value. The remaining tags are peeled together with one object reader, or with
+ * one reader per core when there are many of them. A tag whose object is not available locally is taken to be
+ * lightweight, as the remote always peels annotated tags.
+ */
+final class TagResolver {
+
+    static final int PARALLEL_THRESHOLD = 256;
+
+    private TagResolver() {
+    }
+
+    /**
+     * @param repository the local repository, or <code>null</code> if there is none yet
+     * @param tags the tags to resolve
+     * @return the commit of each tag by ref name, in the same order as the tags
+     */
+    static Map<String, ObjectId> resolve(Repository repository, Collection<Ref> tags) throws IOException {
+        return resolve(repository, tags, PARALLEL_THRESHOLD);
+    }
+
+    static Map<String, ObjectId> resolve(Repository repository, Collection<Ref> tags, int parallelThreshold) throws IOException {
+        Map<String, ObjectId> resolved = new HashMap<>();
+        List<Ref> unpeeled = new ArrayList<>();
+        for (var tag : tags) {
+            if (tag.isPeeled()) {
+                //the peeled id is null if the tag is lightweight
+                resolved.put(tag.getName(), tag.getPeeledObjectId() != null ? tag.getPeeledObjectId() : tag.getObjectId());
+            } else if (repository == null) {
+                resolved.put(tag.getName(), tag.getObjectId());
+            } else {
+                unpeeled.add(tag);
+            }
+        }
+        if (unpeeled.size() >= parallelThreshold) {
+            int chunks = Math.min(Runtime.getRuntime().availableProcessors(), (unpeeled.size() + parallelThreshold - 1) / parallelThreshold);
+            int chunkSize = (unpeeled.size() + chunks - 1) / chunks;
+            Map<String, ObjectId> peeled = new ConcurrentHashMap<>();
+            try {
+                IntStream.range(0, chunks).parallel().forEach(i -> {
+                    try {
+                        peel(repository, unpeeled.subList(i * chunkSize, Math.min(unpeeled.size(), (i + 1) * chunkSize)), peeled);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            resolved.putAll(peeled);
+        } else if (!unpeeled.isEmpty()) {
+            peel(repository, unpeeled, resolved);
+        }
+        Map<String, ObjectId> result = new LinkedHashMap<>();
+        for (var tag : tags) {
+            result.put(tag.getName(), resolved.get(tag.getName()));
+        }
+        return result;
+    }
+
+    /**
+     * Walks back from the given commit, looking at no more than {@code window} commits, and returns the tags that
+     * point at the first commit found that has any.
+     *
+     * @param tagCommits the commits of the tags, as returned by {@link #resolve(Repository, Collection)}
+     * @return the names of the tags, or an empty list if there are none within the window
+     */
+    static List<String> nearestTags(Repository repository, ObjectId start, Map<String, ObjectId> tagCommits, int window) throws IOException {
+        Map<ObjectId, List<String>> byCommit = new HashMap<>();
+        for (var e : tagCommits.entrySet()) {
+            byCommit.computeIfAbsent(e.getValue(), k -> new ArrayList<>()).add(e.getKey());
+        }
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(start));
+            int count = 0;
+            for (RevCommit c = walk.next(); c != null && count < window; c = walk.next(), count++) {
+                List<String> tags = byCommit.get(c);
+                if (tags != null) {
+                    return tags;
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private static void peel(Repository repository, List<Ref> tags, Map<String, ObjectId> resolved) throws IOException {
+        try (ObjectReader reader = repository.newObjectReader(); RevWalk walk = new RevWalk(reader)) {
+            for (var tag : tags) {
+                ObjectId id = tag.getObjectId();
+                try {
+                    if (reader.open(id).getType() == Constants.OBJ_TAG) {
+                        RevObject target = walk.peel(walk.parseTag(id));
+                        id = target.copy();
+                    }
+                } catch (MissingObjectException e) {
+                    //not fetched yet, so it was not peeled by the remote and is a lightweight tag
+                }
+                resolved.put(tag.getName(), id);
+            }
+        }
+    }
+}
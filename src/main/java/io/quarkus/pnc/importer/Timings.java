@@ -0,0 +1,88 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each phase of an import takes.
+ * <p>
+ * Phases can run concurrently, for different artifacts or overlapping with each other, so the total for a phase is
+ * the sum over all threads and can be more than the wall clock time of the whole run.
+ */
+@ApplicationScoped
+public class Timings {
+
+    private final long started = System.nanoTime();
+    private final Map<String, Phase> phases = new TreeMap<>();
+
+    /**
+     * Starts timing a phase, which ends when the returned timer is closed.
+     */
+    public Timer start(String phase) {
+        long start = System.nanoTime();
+        return () -> record(phase, System.nanoTime() - start);
+    }
+
+    /**
+     * Times a phase that ends when the given stage completes.
+     */
+    public <T> CompletionStage<T> time(String phase, CompletionStage<T> stage) {
+        long start = System.nanoTime();
+        return stage.whenComplete((result, failure) -> record(phase, System.nanoTime() - start));
+    }
+
+    public synchronized void record(String phase, long nanos) {
+        phases.computeIfAbsent(phase, k -> new Phase()).add(nanos);
+    }
+
+    public synchronized void print() {
+        System.out.println(String.format("%-24s %8s %12s %12s", "Phase", "Count", "Total (ms)", "Max (ms)"));
+        for (var e : phases.entrySet()) {
+            Phase phase = e.getValue();
+            System.out.println(String.format("%-24s %8d %12d %12d", e.getKey(), phase.count, millis(phase.total), millis(phase.max)));
+        }
+        System.out.println(String.format("%-24s %8s %12d", "wall clock", "", millis(System.nanoTime() - started)));
+    }
+
+    public synchronized void write(Path file, ObjectMapper mapper) throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("wallClockMillis", millis(System.nanoTime() - started));
+        ObjectNode node = root.putObject("phases");
+        for (var e : phases.entrySet()) {
+            ObjectNode phase = node.putObject(e.getKey());
+            phase.put("count", e.getValue().count);
+            phase.put("totalMillis", millis(e.getValue().total));
+            phase.put("maxMillis", millis(e.getValue().max));
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    public interface Timer extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Phase {
+        int count;
+        long total;
+        long max;
+
+        void add(long nanos) {
+            count++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package io.quarkus.pnc.importer;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Trigram index over the identifiers in the {@link ArtifactCatalog}, so the identifiers containing a fragment such
+ * as {@code fs-utils} can be found without looking at all of them.
+ * <p>
+ * Every three byte sequence of the UTF-8 identifiers maps to a posting list of the artifacts whose identifier
+ * contains it. The catalog stores its artifacts newest build first and posting lists are in artifact order, so
+ * intersecting the lists of a fragment gives the matches already sorted, and a search stops as soon as it has
+ * enough of them. Trigrams only narrow down the candidates, each one is checked against the whole fragment.
+ * <p>
+ * The index is stored after the strings of the catalog: the number of trigrams, the sorted trigrams, the start of
+ * each posting list (plus the end of the last one), then the posting lists. It is read straight from the mapped file.
+ */
+final class TrigramIndex {
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int keysStart;
+    private final int offsetsStart;
+    private final int postingsStart;
+
+    TrigramIndex(ByteBuffer buffer, int start) {
+        this.buffer = buffer;
+        this.count = buffer.getInt(start);
+        this.keysStart = start + 4;
+        this.offsetsStart = keysStart + count * 4;
+        this.postingsStart = offsetsStart + (count + 1) * 4;
+    }
+
+    /**
+     * Writes the index of the given identifiers, in artifact order.
+     */
+    static void write(DataOutputStream out, List<byte[]> identifiers) throws IOException {
+        //the posting lists are sized in a first pass, counting in an array indexed by the packed trigram so nothing is
+        //boxed per trigram; it has an entry for every three bytes, 64MB while the index is written
+        int[] cursors = new int[1 << 24];
+        for (var identifier : identifiers) {
+            for (int trigram : trigrams(identifier)) {
+                cursors[trigram]++;
+            }
+        }
+        int distinct = 0;
+        for (int count : cursors) {
+            if (count > 0) {
+                distinct++;
+            }
+        }
+        int[] keys = new int[distinct];
+        int[] offsets = new int[distinct + 1];
+        for (int trigram = 0, key = 0; trigram < cursors.length; ++trigram) {
+            if (cursors[trigram] > 0) {
+                keys[key] = trigram;
+                offsets[key + 1] = offsets[key] + cursors[trigram];
+                cursors[trigram] = offsets[key];
+                key++;
+            }
+        }
+        int[] postings = new int[offsets[distinct]];
+        for (int artifact = 0; artifact < identifiers.size(); ++artifact) {
+            for (int trigram : trigrams(identifiers.get(artifact))) {
+                postings[cursors[trigram]++] = artifact;
+            }
+        }
+        out.writeInt(keys.length);
+        for (int key : keys) {
+            out.writeInt(key);
+        }
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        for (int posting : postings) {
+            out.writeInt(posting);
+        }
+    }
+
+    /**
+     * Finds the artifacts whose identifier contains the fragment, in artifact order.
+     *
+     * @param matches checks that a candidate really contains the fragment
+     * @return at most {@code maxResults} artifacts, or {@code null} if the fragment is too short to use the index
+     */
+    int[] search(byte[] fragment, IntPredicate matches, int maxResults) {
+        int[] trigrams = trigrams(fragment);
+        if (trigrams.length == 0) {
+            return null;
+        }
+        int lists = trigrams.length;
+        int[] starts = new int[lists];
+        int[] ends = new int[lists];
+        for (int i = 0; i < lists; ++i) {
+            int key = find(trigrams[i]);
+            if (key < 0) {
+                return new int[0];
+            }
+            starts[i] = buffer.getInt(offsetsStart + key * 4);
+            ends[i] = buffer.getInt(offsetsStart + (key + 1) * 4);
+        }
+        //walk the shortest list, and skip ahead in the others
+        for (int i = 1; i < lists; ++i) {
+            for (int j = i; j > 0 && ends[j] - starts[j] < ends[j - 1] - starts[j - 1]; --j) {
+                swap(starts, j);
+                swap(ends, j);
+            }
+        }
+        int[] result = new int[Math.min(maxResults, ends[0] - starts[0])];
+        int found = 0;
+        outer: for (int pos = starts[0]; pos < ends[0] && found < result.length; ++pos) {
+            int candidate = posting(pos);
+            for (int i = 1; i < lists; ++i) {
+                starts[i] = advance(starts[i], ends[i], candidate);
+                if (starts[i] == ends[i]) {
+                    break outer;
+                }
+                if (posting(starts[i]) != candidate) {
+                    continue outer;
+                }
+            }
+            if (matches.test(candidate)) {
+                result[found++] = candidate;
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    /**
+     * The distinct trigrams of the given bytes, sorted.
+     */
+    static int[] trigrams(byte[] bytes) {
+        if (bytes.length < 3) {
+            return new int[0];
+        }
+        int[] trigrams = new int[bytes.length - 2];
+        for (int i = 0; i < trigrams.length; ++i) {
+            trigrams[i] = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 1;
+        for (int i = 1; i < trigrams.length; ++i) {
+            if (trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return distinct == trigrams.length ? trigrams : Arrays.copyOf(trigrams, distinct);
+    }
+
+    private int find(int trigram) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int key = buffer.getInt(keysStart + mid * 4);
+            if (key < trigram) {
+                low = mid + 1;
+            } else if (key > trigram) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The first position from {@code pos} with a posting of at least {@code target}, found by doubling the step and
+     * then a binary search, as the target is usually close by.
+     */
+    private int advance(int pos, int end, int target) {
+        if (pos >= end || posting(pos) >= target) {
+            return pos;
+        }
+        int step = 1;
+        int low = pos;
+        while (low + step < end && posting(low + step) < target) {
+            low += step;
+            step <<= 1;
+        }
+        int high = Math.min(low + step, end);
+        //posting(low) < target, and posting(high) >= target or high == end
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (posting(mid) < target) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    private int posting(int pos) {
+        return buffer.getInt(postingsStart + pos * 4);
+    }
+
+    private static void swap(int[] values, int i) {
+        int tmp = values[i];
+        values[i] = values[i - 1];
+        values[i - 1] = tmp;
+    }
+}
@@ -0,0 +1,197 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The upstream (public) repository of a build.
+ * <p>
+ * By default nothing is cloned up front: the tags are listed straight from the remote, once a tag has been picked only
+ * that tag is fetched into a bare repository, without a working tree, and the branch heads are only fetched when the
+ * branches are listed. A full clone can still be requested, in which case this behaves like a normal
+ * {@code git clone}.
+ * <p>
+ * The bare repository is either a mirror that is kept between runs (see {@link GitMirrorCache}) and only needs an
+ * incremental fetch, or a temporary directory that is deleted on close.
+ * <p>
+ * Several builds from the same repository can be imported through one instance: the tags are only listed once, and
+ * the branch heads are only fetched the first time the branches are listed.
+ */
+class UpstreamRepository implements AutoCloseable {
+
+    static final String REFS_REMOTES_ORIGIN = "refs/remotes/origin/";
+    static final String REFS_PNC = "refs/pnc/";
+
+    private final String url;
+    private final Path directory;
+    private final boolean fullClone;
+    private final Runnable onClose;
+    private Git git;
+    private List<Ref> tags;
+    private boolean headsFetched;
+    private final Set<String> fetchedTags = new HashSet<>();
+
+    private UpstreamRepository(String url, Path directory, boolean fullClone, Runnable onClose) {
+        this.url = url;
+        this.directory = directory;
+        this.fullClone = fullClone;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Opens the repository in a new temporary directory, which is deleted again on close.
+     */
+    static UpstreamRepository temporary(String url, boolean fullClone) throws IOException, GitAPIException {
+        Path directory = Files.createTempDirectory("public-checkout");
+        UpstreamRepository repository = new UpstreamRepository(url, directory, fullClone, () -> {
+            try {
+                FileUtils.delete(directory.toFile(), FileUtils.RECURSIVE | FileUtils.RETRY);
+            } catch (IOException e) {
+                System.err.println("Failed to delete " + directory + ": " + e);
+            }
+        });
+        if (fullClone) {
+            try {
+                repository.git = Git.cloneRepository().setDirectory(directory.toFile())
+                        .setURI(url)
+                        .call();
+            } catch (GitAPIException | RuntimeException e) {
+                repository.close();
+                throw e;
+            }
+        }
+        return repository;
+    }
+
+    /**
+     * Opens the repository in a bare mirror that is kept after close, creating it if it does not exist yet.
+     */
+    static UpstreamRepository mirror(String url, Path directory, Runnable onClose) throws IOException {
+        UpstreamRepository repository = new UpstreamRepository(url, directory, false, onClose);
+        if (RepositoryCache.FileKey.isGitRepository(directory.toFile(), FS.DETECTED)) {
+            repository.git = Git.open(directory.toFile());
+        }
+        return repository;
+    }
+
+    /**
+     * Lists the tags of the repository. If nothing has been cloned this is the equivalent of
+     * {@code git ls-remote --tags}, and annotated tags are already peeled by the remote.
+     */
+    List<Ref> tags() throws GitAPIException {
+        if (tags == null) {
+            tags = fullClone
+                    ? git.tagList().call()
+                    : new ArrayList<>(Git.lsRemoteRepository().setRemote(url).setTags(true).call());
+        }
+        return new ArrayList<>(tags);
+    }
+
+    /**
+     * Resolves the given tags, as returned by {@link #tags()}, to the commits they point at.
+     */
+    Map<String, ObjectId> tagCommits(Collection<Ref> tags) throws IOException {
+        //tags listed from the remote are peeled by the server already, only local tags may need to be read
+        return TagResolver.resolve(fullClone ? git.getRepository() : null, tags);
+    }
+
+    /**
+     * Makes sure the given tag is present and up to date locally.
+     *
+     * @return the local repository
+     */
+    Git fetch(Ref tag) throws GitAPIException {
+        if (fullClone || fetchedTags.contains(tag.getName())) {
+            return git;
+        }
+        if (git == null) {
+            git = Git.init().setBare(true).setDirectory(directory.toFile()).call();
+        }
+        git.fetch().setRemote(url)
+                .setTagOpt(TagOpt.NO_TAGS)
+                .setRefSpecs(new RefSpec("+" + tag.getName() + ":" + tag.getName()))
+                .call();
+        fetchedTags.add(tag.getName());
+        return git;
+    }
+
+    /**
+     * Fetches all branch heads, unless they have been fetched already. The history of the tags fetched before is
+     * already present, so this only transfers what the branches have on top of it.
+     */
+    private void fetchHeads() throws GitAPIException {
+        if (headsFetched) {
+            return;
+        }
+        git.fetch().setRemote(url)
+                .setTagOpt(TagOpt.NO_TAGS)
+                .setRemoveDeletedRefs(true)
+                .setRefSpecs(new RefSpec("+" + Import.REFS_HEADS + "*:" + Import.REFS_HEADS + "*"))
+                .call();
+        headsFetched = true;
+    }
+
+    /**
+     * Fetches a tag of a PNC build from PNC's internal copy of the repository. It is stored under
+     * {@value #REFS_PNC} so it does not get mixed up with the upstream tags. Only the commits PNC added on top of
+     * the upstream history are transferred if that history has already been fetched.
+     *
+     * @return the local repository
+     */
+    Repository fetchInternal(String internalUrl, String tag) throws GitAPIException {
+        if (git == null) {
+            git = Git.init().setBare(true).setDirectory(directory.toFile()).call();
+        }
+        git.fetch().setRemote(internalUrl)
+                .setTagOpt(TagOpt.NO_TAGS)
+                .setRefSpecs(new RefSpec("+" + Import.REFS_TAGS + tag + ":" + REFS_PNC + tag))
+                .call();
+        return git.getRepository();
+    }
+
+    /**
+     * Lists the branches of the upstream repository, which will be local branches for a fetch and remote tracking
+     * branches for a full clone. Can only be called after {@link #fetch(Ref)}, the first call fetches the branch
+     * heads.
+     */
+    List<Ref> branches() throws GitAPIException {
+        if (!fullClone) {
+            fetchHeads();
+            return git.branchList().call();
+        }
+        List<Ref> branches = new ArrayList<>();
+        for (var ref : git.branchList().setListMode(ListBranchCommand.ListMode.REMOTE).call()) {
+            if (ref.getName().startsWith(REFS_REMOTES_ORIGIN) && !ref.isSymbolic()) {
+                branches.add(ref);
+            }
+        }
+        return branches;
+    }
+
+    @Override
+    public void close() {
+        if (git != null) {
+            git.close();
+        }
+        onClose.run();
+    }
+}
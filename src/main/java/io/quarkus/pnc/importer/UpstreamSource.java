@@ -0,0 +1,50 @@
+package io.quarkus.pnc.importer;
+
+/**
+ * The upstream commit a build was made from, as it is recorded in {@code upstream_sources.yml}.
+ */
+public class UpstreamSource {
+
+    private final String url;
+    private final String branch;
+    private final String commit;
+    private final String tag;
+
+    public UpstreamSource(String url, String branch, String commit, String tag) {
+        this.url = url;
+        this.branch = branch;
+        this.commit = commit;
+        this.tag = tag;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public String getCommit() {
+        return commit;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return the entry for {@code upstream_sources.yml}
+     */
+    public String toYaml() {
+        return "- automerge: 'yes'\n" +
+                "  branch: " + branch + "\n" +
+                "  commit: " + commit + "\n" +
+                "  dest_formats:\n" +
+                "    branch:\n" +
+                "      gen_source_repos: true\n" +
+                "  update_policy:\n" +
+                "  - tagged\n" +
+                "  url: " + url + "\n";
+    }
+}
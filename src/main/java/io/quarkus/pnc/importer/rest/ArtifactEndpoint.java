@@ -17,6 +17,11 @@
  */
 package io.quarkus.pnc.importer.rest;
 
+import io.quarkus.pnc.importer.ArtifactPageReader;
+import io.quarkus.pnc.importer.PncCompressionFilter;
+import io.quarkus.pnc.importer.PncRecordingFilter;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
@@ -24,6 +29,7 @@ import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
@@ -34,6 +40,9 @@ import javax.ws.rs.core.MediaType;
 @Consumes(MediaType.APPLICATION_JSON)
 @RestClient
 @RegisterRestClient(configKey = "pnc")
+@RegisterProvider(PncCompressionFilter.class)
+@RegisterProvider(PncRecordingFilter.class)
+@RegisterProvider(ArtifactPageReader.class)
 public interface ArtifactEndpoint {
     static final String A_ID = "ID of the artifact";
     static final String A_REV = "Revision number of the artifact";
@@ -55,4 +64,20 @@ public interface ArtifactEndpoint {
     @GET
     Page<Artifact> getAll(@BeanParam PageParameters pageParams, @QueryParam("sha256") String sha256, @QueryParam("md5") String md5, @QueryParam("sha1") String sha1);
 
+    /**
+     * Non blocking version of {@link #getAll(PageParameters, String, String, String)}.
+     */
+    @GET
+    Uni<Page<Artifact>> getAllAsync(@BeanParam PageParameters pageParams, @QueryParam("sha256") String sha256, @QueryParam("md5") String md5, @QueryParam("sha1") String sha1);
+
+    /**
+     * Gets a specific artifact.
+     *
+     * @param id {@value A_ID}
+     * @return
+     */
+    @GET
+    @Path("/{id}")
+    Uni<Artifact> getSpecificAsync(@PathParam("id") String id);
+
 }
@@ -18,6 +18,10 @@
 package io.quarkus.pnc.importer.rest;
 
 
+import io.quarkus.pnc.importer.PncCompressionFilter;
+import io.quarkus.pnc.importer.PncRecordingFilter;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 import javax.ws.rs.BeanParam;
@@ -32,6 +36,8 @@ import javax.ws.rs.core.MediaType;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @RegisterRestClient(configKey = "pnc")
+@RegisterProvider(PncCompressionFilter.class)
+@RegisterProvider(PncRecordingFilter.class)
 public interface BuildConfigurationEndpoint {
 
     @GET
@@ -42,4 +48,20 @@ public interface BuildConfigurationEndpoint {
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     BuildConfiguration getSpecific(@PathParam("id") String id);
+
+    /**
+     * Non blocking version of {@link #getSpecific(String)}.
+     */
+    @GET
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    Uni<BuildConfiguration> getSpecificAsync(@PathParam("id") String id);
+
+    /**
+     * The builds of the build config.
+     */
+    @GET
+    @Path("/{id}/builds")
+    @Consumes(MediaType.APPLICATION_JSON)
+    Uni<Page<Build>> getBuildsAsync(@PathParam("id") String id, @BeanParam PageParameters pageParams);
 }
@@ -0,0 +1,59 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2022 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.quarkus.pnc.importer.rest;
+
+
+import io.quarkus.pnc.importer.PncCompressionFilter;
+import io.quarkus.pnc.importer.PncRecordingFilter;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+@Path("/group-configs")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@RegisterRestClient(configKey = "pnc")
+@RegisterProvider(PncCompressionFilter.class)
+@RegisterProvider(PncRecordingFilter.class)
+public interface GroupConfigurationEndpoint {
+
+    @GET
+    Page<GroupConfiguration> getAll(@BeanParam PageParameters pageParams);
+
+
+    @GET
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    GroupConfiguration getSpecific(@PathParam("id") String id);
+
+    /**
+     * Non blocking version of {@link #getSpecific(String)}.
+     */
+    @GET
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    Uni<GroupConfiguration> getSpecificAsync(@PathParam("id") String id);
+}
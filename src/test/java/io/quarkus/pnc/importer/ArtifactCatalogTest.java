@@ -0,0 +1,60 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactQuality;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ArtifactCatalogTest {
+
+    static final String REPO = "https://github.com/quarkusio/quarkus-http.git";
+
+    @Test
+    public void testWriteAndSearch() throws Exception {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            Files.delete(file);
+            Assertions.assertEquals(0, ArtifactCatalog.open(file).size());
+            Assertions.assertNull(ArtifactCatalog.open(file).watermark());
+
+            Instant watermark = Instant.parse("2022-04-02T10:15:30Z");
+            ArtifactCatalog.write(file, List.of(
+                    new ArtifactCatalog.Entry("1", "io.quarkus.http:quarkus-http-core:pom:4.1.6.redhat-00001", "A1", REPO, "4.1.6.redhat-00001",
+                            "VERIFIED", Instant.parse("2022-03-01T09:00:00Z"), true),
+                    new ArtifactCatalog.Entry("2", "io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001", "A2", REPO, "4.1.7.redhat-00001",
+                            "NEW", Instant.parse("2022-04-01T09:00:00Z"), false),
+                    new ArtifactCatalog.Entry("3", "io.quarkus:quarkus-fs-util:pom:0.0.9.redhat-00001", "A3", null, null, null, null, false)),
+                    watermark);
+
+            ArtifactCatalog catalog = ArtifactCatalog.open(file);
+            Assertions.assertEquals(3, catalog.size());
+            Assertions.assertEquals(watermark, catalog.watermark());
+            //stored newest build first
+            Assertions.assertEquals("io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001", catalog.identifier(0));
+            Assertions.assertEquals(REPO, catalog.scmUrl(0));
+            Assertions.assertEquals(ArtifactQuality.NEW, catalog.quality(0));
+            Assertions.assertEquals(ArtifactQuality.VERIFIED, catalog.quality(1));
+            Assertions.assertNull(catalog.scmUrl(2));
+            Assertions.assertNull(catalog.startTime(2));
+            Assertions.assertEquals(3, catalog.entries().size());
+
+            List<Artifact> found = catalog.search("quarkus-http-core", 10);
+            Assertions.assertEquals(List.of("2", "1"), found.stream().map(Artifact::getId).collect(Collectors.toList()));
+            Artifact newest = found.get(0);
+            Assertions.assertEquals("A2", newest.getBuild().getId());
+            Assertions.assertEquals("4.1.7.redhat-00001", newest.getBuild().getScmTag());
+            Assertions.assertEquals(false, newest.getBuild().getScmRepository().getPreBuildSyncEnabled());
+            Assertions.assertEquals(Instant.parse("2022-04-01T09:00:00Z"), newest.getBuild().getStartTime());
+            Assertions.assertEquals(1, catalog.search("quarkus-http-core", 1).size());
+            Assertions.assertEquals(0, catalog.search("vertx", 10).size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactQuality;
+import io.quarkus.pnc.importer.rest.BuildType;
+import io.quarkus.pnc.importer.rest.Page;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ArtifactPageReaderTest {
+
+    static final String PAGE = ("{'pageIndex':1,'pageSize':2,'totalPages':3,'totalHits':5,'content':["
+            + "{'id':'100','identifier':'io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001','md5':'0123','sha256':'4567','purl':'pkg:maven/io.quarkus.http/quarkus-http-core',"
+            + "'artifactQuality':'VERIFIED','creationTime':'2022-04-01T10:15:30Z','modificationTime':'2022-04-02T10:15:30Z',"
+            + "'targetRepository':{'id':'1','repositoryPath':'/api/'},'creationUser':{'id':'42','username':'newcastle'},"
+            + "'build':{'id':'A1','startTime':'2022-04-01T09:01:00.123Z','scmTag':'4.1.7.redhat-00001','scmRevision':'abcdef',"
+            + "'attributes':{'BREW_BUILD_VERSION':'4.1.7'},'project':{'id':'7','name':'quarkus-http'},"
+            + "'scmRepository':{'id':'3','internalUrl':'git+ssh://code.example.com/quarkus-http.git',"
+            + "'externalUrl':'https://github.com/quarkusio/quarkus-http.git','preBuildSyncEnabled':true,'extra':[{'a':[1,2]}]},"
+            + "'environment':{'id':'1','systemImageId':'builder:1.0','attributes':{'JDK':'11'}},"
+            + "'buildConfigRevision':{'id':'1000','rev':3,'buildScript':'mvn deploy','buildType':'MVN','scmRevision':'4.1.7'}}},"
+            + "{'id':'101','identifier':'io.quarkus.http:quarkus-http:pom:4.1.7.redhat-00001','build':null}"
+            + "],'unknown':{'nested':[{}]}}").replace('\'', '"');
+
+    @Test
+    public void testProjection() throws Exception {
+        Page<Artifact> page = ArtifactPageReader.read(new JsonFactory().createParser(PAGE));
+        Assertions.assertEquals(1, page.getPageIndex());
+        Assertions.assertEquals(2, page.getPageSize());
+        Assertions.assertEquals(3, page.getTotalPages());
+        Assertions.assertEquals(5, page.getTotalHits());
+
+        List<Artifact> content = new ArrayList<>(page.getContent());
+        Assertions.assertEquals(2, content.size());
+        Artifact artifact = content.get(0);
+        Assertions.assertEquals("100", artifact.getId());
+        Assertions.assertEquals("io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001", artifact.getIdentifier());
+        Assertions.assertEquals(ArtifactQuality.VERIFIED, artifact.getArtifactQuality());
+        Assertions.assertEquals(Instant.parse("2022-04-01T10:15:30Z"), artifact.getCreationTime());
+        Assertions.assertEquals(Instant.parse("2022-04-02T10:15:30Z"), artifact.getModificationTime());
+        Assertions.assertEquals("0123", artifact.getMd5());
+        Assertions.assertEquals("4567", artifact.getSha256());
+        Assertions.assertNull(artifact.getPurl());
+        Assertions.assertNull(artifact.getCreationUser());
+
+        var build = artifact.getBuild();
+        Assertions.assertEquals("A1", build.getId());
+        Assertions.assertEquals(Instant.parse("2022-04-01T09:01:00.123Z"), build.getStartTime());
+        Assertions.assertEquals("4.1.7.redhat-00001", build.getScmTag());
+        Assertions.assertEquals("abcdef", build.getScmRevision());
+        Assertions.assertNull(build.getProject());
+        Assertions.assertEquals("https://github.com/quarkusio/quarkus-http.git", build.getScmRepository().getExternalUrl());
+        Assertions.assertEquals("git+ssh://code.example.com/quarkus-http.git", build.getScmRepository().getInternalUrl());
+        Assertions.assertEquals(true, build.getScmRepository().getPreBuildSyncEnabled());
+        Assertions.assertEquals("builder:1.0", build.getEnvironment().getSystemImageId());
+        Assertions.assertEquals("1000", build.getBuildConfigRevision().getId());
+        Assertions.assertEquals("mvn deploy", build.getBuildConfigRevision().getBuildScript());
+        Assertions.assertEquals(BuildType.MVN, build.getBuildConfigRevision().getBuildType());
+
+        Assertions.assertEquals("101", content.get(1).getId());
+        Assertions.assertNull(content.get(1).getBuild());
+    }
+}
@@ -0,0 +1,105 @@
+package io.quarkus.pnc.importer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BuildConfigYamlTest {
+
+    static final List<String> CONFIG = List.of(
+            "# quarkus components",
+            "#!quarkus-fs-util-version=0.0.8",
+            "#!quarkus-http-version=4.1.7",
+            "product:",
+            "  name: Quarkus Components",
+            "builds:",
+            "",
+            "  - name: \"{{ quarkus-fs-util-version }}\"",
+            "    project: quarkusio/quarkus-fs-util",
+            "    scmUrl: https://github.com/quarkusio/quarkus-fs-util.git",
+            "",
+            "  - name: \"{{ quarkus-http-version }}\"",
+            "    project: quarkusio/quarkus-http",
+            "    dependencies:",
+            "    - {{ \"quarkus-fs-util-version\" }}",
+            "",
+            "outputPrefixes:",
+            "  releaseFile: quarkus-components");
+
+    @Test
+    public void testRoundTrip() {
+        BuildConfigYaml yaml = BuildConfigYaml.parse(CONFIG);
+        Assertions.assertEquals(CONFIG, yaml.toLines());
+        Assertions.assertTrue(yaml.hasVersion("quarkus-http-version"));
+        Assertions.assertTrue(yaml.hasBuild("{{ quarkus-http-version }}"));
+        Assertions.assertFalse(yaml.hasBuild("{{ quarkus-version }}"));
+    }
+
+    @Test
+    public void testAddAndReplace() throws Exception {
+        BuildConfigYaml yaml = BuildConfigYaml.parse(CONFIG);
+        yaml.setVersion("quarkus-fs-util-version", "0.0.9");
+        yaml.setVersion("smallrye-common-version", "1.10.0");
+        Assertions.assertFalse(yaml.putBuild(List.of(
+                "  - name: \"{{ smallrye-common-version }}\"",
+                "    project: smallrye/smallrye-common")));
+        Assertions.assertTrue(yaml.putBuild(List.of(
+                "  - name: \"{{ quarkus-fs-util-version }}\"",
+                "    project: quarkusio/quarkus-fs-util",
+                "    scmUrl: https://github.com/quarkusio/quarkus-fs-util.git",
+                "    buildType: MVN")));
+
+        Path file = Files.createTempFile("build-config", ".yaml");
+        try {
+            yaml.write(file);
+            Assertions.assertEquals(List.of(
+                    "# quarkus components",
+                    "#!quarkus-fs-util-version=0.0.9",
+                    "#!quarkus-http-version=4.1.7",
+                    "#!smallrye-common-version=1.10.0",
+                    "product:",
+                    "  name: Quarkus Components",
+                    "builds:",
+                    "",
+                    "  - name: \"{{ smallrye-common-version }}\"",
+                    "    project: smallrye/smallrye-common",
+                    "",
+                    "  - name: \"{{ quarkus-fs-util-version }}\"",
+                    "    project: quarkusio/quarkus-fs-util",
+                    "    scmUrl: https://github.com/quarkusio/quarkus-fs-util.git",
+                    "    buildType: MVN",
+                    "",
+                    "  - name: \"{{ quarkus-http-version }}\"",
+                    "    project: quarkusio/quarkus-http",
+                    "    dependencies:",
+                    "    - {{ \"quarkus-fs-util-version\" }}",
+                    "",
+                    "outputPrefixes:",
+                    "  releaseFile: quarkus-components"), Files.readAllLines(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDuplicateBuildsAreRemoved() {
+        BuildConfigYaml yaml = BuildConfigYaml.parse(List.of(
+                "#!a-version=1",
+                "builds:",
+                "",
+                "  - name: a",
+                "    project: first",
+                "",
+                "  - name: a",
+                "    project: second"));
+        Assertions.assertEquals(List.of(
+                "#!a-version=1",
+                "builds:",
+                "",
+                "  - name: a",
+                "    project: first"), yaml.toLines());
+    }
+}
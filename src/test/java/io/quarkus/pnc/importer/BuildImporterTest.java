@@ -0,0 +1,98 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.PageParameters;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class BuildImporterTest {
+
+    @Test
+    public void testFindByChecksums() {
+        //60 files in two batches, with more matches in the first batch than fit on one page
+        List<Checksums> files = new ArrayList<>();
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 60; ++i) {
+            Checksums file = new Checksums(Path.of("file" + i + ".jar"), "md5-" + i, "sha1-" + i, "sha256-" + i);
+            files.add(file);
+            for (int build = 0; build < 5; ++build) {
+                artifacts.add(artifact(i + "-" + build, file.md5, file.sha1, file.sha256.toUpperCase()));
+            }
+        }
+        //a bad record in PNC, with the same SHA-256 but another MD5
+        artifacts.add(artifact("bad", "other", null, "sha256-0"));
+        Checksums unknown = new Checksums(Path.of("unknown.jar"), "md5-x", "sha1-x", "sha256-x");
+        files.add(unknown);
+
+        ChecksumPncClient pncClient = new ChecksumPncClient(artifacts);
+        BuildImporter importer = new BuildImporter();
+        importer.pncClient = pncClient;
+        importer.timings = new Timings();
+        Map<Checksums, List<Artifact>> found = importer.findByChecksums(files);
+
+        Assertions.assertEquals(files, new ArrayList<>(found.keySet()));
+        for (int i = 0; i < 60; ++i) {
+            Assertions.assertEquals(5, found.get(files.get(i)).size(), files.get(i).file.toString());
+        }
+        Assertions.assertEquals(Set.of("0-0", "0-1", "0-2", "0-3", "0-4"),
+                found.get(files.get(0)).stream().map(Artifact::getId).collect(Collectors.toSet()));
+        Assertions.assertTrue(found.get(unknown).isEmpty());
+        //the first page of both batches is requested at once, then the second page of the first
+        Assertions.assertEquals(List.of(50, 11, 50), pncClient.batchSizes);
+    }
+
+    static Artifact artifact(String id, String md5, String sha1, String sha256) {
+        return Artifact.builder()
+                .id(id)
+                .identifier("io.quarkus:quarkus-" + id + ":jar:1.0.0.redhat-00001")
+                .md5(md5)
+                .sha1(sha1)
+                .sha256(sha256)
+                .build(Build.builder().id("B" + id).build())
+                .build();
+    }
+
+    /**
+     * Answers {@code sha256=in=(...)} queries from a list of artifacts, a page at a time.
+     */
+    static class ChecksumPncClient extends PncClient {
+
+        private static final Pattern VALUE = Pattern.compile("\"([^\"]*)\"");
+
+        final List<Artifact> artifacts;
+        final List<Integer> batchSizes = new ArrayList<>();
+
+        ChecksumPncClient(List<Artifact> artifacts) {
+            this.artifacts = artifacts;
+        }
+
+        @Override
+        public synchronized Uni<Page<Artifact>> getArtifacts(PageParameters pageParams, String sha256, String md5, String sha1) {
+            List<String> checksums = new ArrayList<>();
+            Matcher matcher = VALUE.matcher(pageParams.getQ());
+            while (matcher.find()) {
+                checksums.add(matcher.group(1));
+            }
+            batchSizes.add(checksums.size());
+            List<Artifact> matching = artifacts.stream()
+                    .filter(a -> checksums.contains(a.getSha256().toLowerCase()))
+                    .collect(Collectors.toList());
+            int from = Math.min(pageParams.getPageIndex() * pageParams.getPageSize(), matching.size());
+            int to = Math.min(from + pageParams.getPageSize(), matching.size());
+            return Uni.createFrom().item(new Page<>(pageParams.getPageIndex(), pageParams.getPageSize(), matching.size(),
+                    new ArrayList<>(matching.subList(from, to))));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.quarkus.pnc.importer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+public class ChecksumsTest {
+
+    @Test
+    public void testSmallFile() throws Exception {
+        Path file = Files.createTempFile("checksums", ".jar");
+        try {
+            Files.writeString(file, "abc", StandardCharsets.UTF_8);
+            Checksums checksums = Checksums.of(file);
+            Assertions.assertEquals("900150983cd24fb0d6963f7d28e17f72", checksums.md5);
+            Assertions.assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", checksums.sha1);
+            Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", checksums.sha256);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedFile() throws Exception {
+        Path file = Files.createTempFile("checksums", ".jar");
+        Path copy = Files.createTempFile("checksums", ".jar");
+        try {
+            //large enough to be mapped, and not a multiple of the block size
+            byte[] data = new byte[300_001];
+            new Random(42).nextBytes(data);
+            Files.write(file, data);
+            Checksums mapped = Checksums.of(file);
+
+            Assertions.assertEquals(hex(MessageDigest.getInstance("MD5").digest(data)), mapped.md5);
+            Assertions.assertEquals(hex(MessageDigest.getInstance("SHA-1").digest(data)), mapped.sha1);
+            Assertions.assertEquals(hex(MessageDigest.getInstance("SHA-256").digest(data)), mapped.sha256);
+
+            data[data.length - 1]++;
+            Files.write(copy, data);
+            Checksums changed = Checksums.of(copy);
+            Assertions.assertNotEquals(mapped.md5, changed.md5);
+            Assertions.assertNotEquals(mapped.sha1, changed.sha1);
+            Assertions.assertNotEquals(mapped.sha256, changed.sha256);
+        } finally {
+            Files.delete(file);
+            Files.delete(copy);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        return String.format("%0" + digest.length * 2 + "x", new BigInteger(1, digest));
+    }
+}
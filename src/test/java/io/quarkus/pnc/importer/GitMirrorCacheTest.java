@@ -0,0 +1,75 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class GitMirrorCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedMirrorsAreEvicted() throws Exception {
+        Path dir = Files.createTempDirectory("git-cache");
+        try {
+            long now = System.currentTimeMillis();
+            Path first = mirror(dir, "first", now - 1000);
+            Path second = mirror(dir, "second", now - 3000);
+            Path third = mirror(dir, "third", now - 2000);
+            //room for two mirrors
+            GitMirrorCache cache = cache(dir, 2500);
+            cache.evict();
+            Assertions.assertTrue(Files.exists(first));
+            Assertions.assertFalse(Files.exists(second));
+            Assertions.assertTrue(Files.exists(third));
+            //the lock file goes with the mirror
+            try (var files = Files.list(dir)) {
+                Assertions.assertEquals(Set.of("first", "third"), files.map(f -> f.getFileName().toString()).collect(Collectors.toSet()));
+            }
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testMirrorsInUseAreNotEvicted() throws Exception {
+        Path dir = Files.createTempDirectory("git-cache");
+        try {
+            String url = "https://github.com/quarkusio/quarkus-http.git";
+            Path mirror = mirror(dir, GitMirrorCache.key(url), System.currentTimeMillis() - 1000);
+            GitMirrorCache cache = cache(dir, 0);
+            try (var upstream = cache.open(url, false)) {
+                //the thread holding the mirror is also the one evicting
+                cache.evict();
+                Assertions.assertTrue(Files.exists(mirror));
+                Assertions.assertTrue(Files.exists(GitMirrorCache.lockFilePath(mirror)));
+            }
+            Assertions.assertFalse(Files.exists(mirror));
+            Assertions.assertFalse(Files.exists(GitMirrorCache.lockFilePath(mirror)));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    private static Path mirror(Path dir, String name, long lastUsed) throws Exception {
+        Path mirror = Files.createDirectories(dir.resolve(name));
+        Files.write(mirror.resolve("pack"), new byte[1000]);
+        Files.writeString(mirror.resolve(GitMirrorCache.LAST_USED), "");
+        Files.setLastModifiedTime(mirror.resolve(GitMirrorCache.LAST_USED), FileTime.fromMillis(lastUsed));
+        return mirror;
+    }
+
+    private static GitMirrorCache cache(Path dir, long maxSize) {
+        GitMirrorCache cache = new GitMirrorCache();
+        cache.enabled = true;
+        cache.directory = dir.toString();
+        cache.maxSize = new MemorySize(BigInteger.valueOf(maxSize));
+        return cache;
+    }
+}
@@ -0,0 +1,195 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfiguration;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRevisionRef;
+import io.quarkus.pnc.importer.rest.BuildType;
+import io.quarkus.pnc.importer.rest.Environment;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.ProjectRef;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+import io.quarkus.test.junit.main.LaunchResult;
+import io.quarkus.test.junit.main.QuarkusMainLauncher;
+import io.quarkus.test.junit.main.QuarkusMainTest;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records an import against a fake PNC, then runs it again against {@link ReplayServer} serving the recording, and
+ * compares the files it writes.
+ */
+@QuarkusMainTest
+public class ImportReplayTest {
+
+    /**
+     * The port of {@code %test.pnc.url}.
+     */
+    static final int PNC_PORT = 8089;
+
+    static final String UPSTREAM_SOURCES = "- automerge: 'yes'\n"
+            + "  branch: main\n"
+            + "  commit: 0123456789abcdef0123456789abcdef01234567\n"
+            + "  dest_formats:\n"
+            + "    branch:\n"
+            + "      gen_source_repos: true\n"
+            + "  update_policy:\n"
+            + "  - tagged\n"
+            + "  url: https://github.com/quarkusio/quarkus-fs-util.git\n";
+
+    @Test
+    public void testImportFromRecordedResponses(QuarkusMainLauncher launcher) throws Exception {
+        Path dir = Files.createTempDirectory("replay");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Path upstream = dir.resolve("upstream");
+            RevCommit tagged;
+            try (Git git = Git.init().setDirectory(upstream.toFile()).setInitialBranch("main").call()) {
+                Files.writeString(upstream.resolve("README"), "1.2.0");
+                git.add().addFilepattern("README").call();
+                tagged = git.commit().setMessage("1.2.0").call();
+                git.tag().setName("1.2.0").call();
+            }
+            String upstreamUrl = upstream.toUri().toString();
+            Path recording = dir.resolve("recording");
+
+            HttpServer pnc = fakePnc(upstreamUrl, executor);
+            Path recorded;
+            try {
+                recorded = checkout(dir.resolve("recorded"));
+                assertSucceeded(launcher.launch("import", "-p", recorded.toString(), "--auto",
+                        "--record", recording.toString(), "quarkus-http-core"));
+            } finally {
+                pnc.stop(0);
+            }
+
+            ReplayServer replayServer = new ReplayServer();
+            replayServer.directory = recording;
+            replayServer.port = PNC_PORT;
+            HttpServer replay = replayServer.start(executor);
+            Path replayed;
+            try {
+                replayed = checkout(dir.resolve("replayed"));
+                assertSucceeded(launcher.launch("import", "-p", replayed.toString(), "--auto", "--no-cache", "quarkus-http-core"));
+            } finally {
+                replay.stop(0);
+            }
+
+            Assertions.assertEquals(String.join("\n",
+                    "#!quarkus-fs-util-version=0.0.9",
+                    "#!quarkus-http-version=1.2.0",
+                    "builds:",
+                    "",
+                    "  - name: \"{{ quarkus-http-version }}\"",
+                    "    project: quarkusio/quarkus-http",
+                    "    scmUrl: " + upstreamUrl,
+                    "    scmRevision: \"{{ quarkus-http-version }}\"",
+                    "    buildScript: mvn deploy",
+                    "    buildType: MVN",
+                    "    systemImageId: builder-rhel-8-j11-mvn3.8.4:1.0.0",
+                    "",
+                    "  - name: \"{{ quarkus-fs-util-version }}\"",
+                    "    project: quarkusio/quarkus-fs-util",
+                    ""), Files.readString(replayed.resolve("build-config.yaml")));
+            Assertions.assertEquals(UPSTREAM_SOURCES
+                    + "- automerge: 'yes'\n"
+                    + "  branch: main\n"
+                    + "  commit: " + tagged.name() + "\n"
+                    + "  dest_formats:\n"
+                    + "    branch:\n"
+                    + "      gen_source_repos: true\n"
+                    + "  update_policy:\n"
+                    + "  - tagged\n"
+                    + "  url: " + upstreamUrl + "\n", Files.readString(replayed.resolve("upstream_sources.yml")));
+            //the replay writes exactly what the recorded import did
+            for (var file : List.of("build-config.yaml", "upstream_sources.yml")) {
+                Assertions.assertEquals(Files.readString(recorded.resolve(file)), Files.readString(replayed.resolve(file)), file);
+            }
+        } finally {
+            executor.shutdown();
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    private static Path checkout(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("build-config.yaml"), List.of(
+                "#!quarkus-fs-util-version=0.0.9",
+                "builds:",
+                "",
+                "  - name: \"{{ quarkus-fs-util-version }}\"",
+                "    project: quarkusio/quarkus-fs-util"));
+        Files.writeString(dir.resolve("upstream_sources.yml"), UPSTREAM_SOURCES);
+        return dir;
+    }
+
+    private static void assertSucceeded(LaunchResult result) {
+        Assertions.assertEquals(0, result.exitCode(), result.getErrorOutput());
+    }
+
+    /**
+     * Answers the artifact search with a single build of the upstream repository, and its build config.
+     */
+    private static HttpServer fakePnc(String upstreamUrl, ExecutorService executor) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        Artifact artifact = Artifact.builder()
+                .id("100")
+                .identifier("io.quarkus.http:quarkus-http-core:pom:1.2.0.redhat-00001")
+                .build(Build.builder()
+                        .id("A1")
+                        .scmTag("1.2.0.redhat-00001")
+                        .scmRevision("abcdef")
+                        .scmRepository(SCMRepository.builder().externalUrl(upstreamUrl).preBuildSyncEnabled(true).build())
+                        .environment(Environment.builder().id("2").systemImageId("builder-rhel-8-j11-mvn3.8.4:1.0.0").build())
+                        .buildConfigRevision(BuildConfigurationRevisionRef.refBuilder()
+                                .id("7")
+                                .buildScript("mvn deploy")
+                                .buildType(BuildType.MVN)
+                                .build())
+                        .build())
+                .build();
+        BuildConfiguration buildConfig = BuildConfiguration.builder()
+                .id("7")
+                .name("quarkus-http-1.2.0")
+                .project(ProjectRef.refBuilder().id("3").name("quarkusio/quarkus-http").build())
+                .dependencies(Map.of())
+                .build();
+        Map<String, byte[]> responses = Map.of(
+                "/artifacts", mapper.writeValueAsBytes(new Page<>(0, 200, 1, List.of(artifact))),
+                "/build-configs/7", mapper.writeValueAsBytes(buildConfig));
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", PNC_PORT), 0);
+        server.setExecutor(executor);
+        server.createContext("/", (HttpExchange exchange) -> {
+            try {
+                byte[] body = responses.get(exchange.getRequestURI().getPath());
+                if (body == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,86 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRevisionRef;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Goes through the HTTP endpoints, with PNC stubbed out and a local upstream repository.
+ */
+@QuarkusTest
+public class ImportResourceEndpointTest {
+
+    static String upstreamUrl;
+
+    @BeforeAll
+    static void createUpstream() throws Exception {
+        Path upstream = Files.createTempDirectory("upstream");
+        try (Git git = Git.init().setDirectory(upstream.toFile()).setInitialBranch("main").call()) {
+            Files.writeString(upstream.resolve("README"), "1.2.0");
+            git.add().addFilepattern("README").call();
+            git.commit().setMessage("1.2.0").call();
+            git.tag().setName("1.2.0").call();
+            git.tag().setName("1.2.0-CR1").call();
+        }
+        upstreamUrl = upstream.toUri().toString();
+    }
+
+    @BeforeEach
+    void stubPnc() {
+        QuarkusMock.installMockForType(new StubPncClient(), PncClient.class);
+    }
+
+    @Test
+    public void testAmbiguousTagIsAConflict() {
+        given()
+                .when().get("/api/artifacts/100/upstream-source")
+                .then()
+                .statusCode(409)
+                .body(is("Multiple potential tags found for " + upstreamUrl + ", please select the appropriate one: \n"
+                        + "refs/tags/1.2.0-CR1\n"
+                        + "refs/tags/1.2.0\n"));
+    }
+
+    @Test
+    public void testRequestedTag() {
+        given()
+                .queryParam("tag", "1.2.0")
+                .when().get("/api/artifacts/100/upstream-source")
+                .then()
+                .statusCode(200)
+                .body(containsString("  branch: main\n"), containsString("  url: " + upstreamUrl + "\n"));
+    }
+
+    static class StubPncClient extends PncClient {
+
+        @Override
+        public Uni<Artifact> getArtifact(String id) {
+            return Uni.createFrom().item(Artifact.builder()
+                    .id(id)
+                    .identifier("io.quarkus.http:quarkus-http-core:pom:1.2.0.redhat-00001")
+                    .build(Build.builder()
+                            .id("A1")
+                            .scmTag("1.2.0.redhat-00001")
+                            .scmRevision("abcdef")
+                            .scmRepository(SCMRepository.builder().externalUrl(upstreamUrl).preBuildSyncEnabled(true).build())
+                            .buildConfigRevision(BuildConfigurationRevisionRef.refBuilder().id("7").buildScript("mvn deploy").build())
+                            .build())
+                    .build());
+        }
+    }
+}
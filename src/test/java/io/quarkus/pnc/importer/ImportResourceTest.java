@@ -0,0 +1,44 @@
+package io.quarkus.pnc.importer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.WebApplicationException;
+import java.util.List;
+import java.util.function.Function;
+
+public class ImportResourceTest {
+
+    @Test
+    public void testRequestedTagAndBranchAreChosen() {
+        var chooser = new ImportResource.RequestedChooser("1.2.0", "1.2");
+        Assertions.assertEquals("refs/tags/1.2.0", chooser.choose(choice(Choice.Kind.TAG, "tags"), List.of("refs/tags/1.2.0-CR1", "refs/tags/1.2.0"), Function.identity()));
+        Assertions.assertEquals("refs/remotes/origin/1.2", chooser.choose(choice(Choice.Kind.BRANCH, "branches"), List.of("refs/remotes/origin/main", "refs/remotes/origin/1.2"), Function.identity()));
+    }
+
+    @Test
+    public void testTagAndBranchAreNotMixedUp() {
+        //a tag named like the requested branch is not picked, and neither is a branch named like the requested tag
+        var chooser = new ImportResource.RequestedChooser("1.2.0", "1.2");
+        Assertions.assertEquals("refs/tags/1.2.0", chooser.choose(choice(Choice.Kind.TAG, "tags"), List.of("refs/tags/1.2", "refs/tags/1.2.0"), Function.identity()));
+        Assertions.assertEquals("refs/heads/1.2", chooser.choose(choice(Choice.Kind.BRANCH, "branches"), List.of("refs/heads/1.2.0", "refs/heads/1.2"), Function.identity()));
+
+        var branchOnly = new ImportResource.RequestedChooser(null, "1.2");
+        var e = Assertions.assertThrows(WebApplicationException.class,
+                () -> branchOnly.choose(choice(Choice.Kind.TAG, "tags"), List.of("refs/tags/1.2", "refs/tags/1.2.0"), Function.identity()));
+        Assertions.assertEquals(409, e.getResponse().getStatus());
+    }
+
+    @Test
+    public void testAmbiguousChoiceIsAConflict() {
+        var chooser = new ImportResource.RequestedChooser(null, null);
+        var e = Assertions.assertThrows(WebApplicationException.class,
+                () -> chooser.choose(choice(Choice.Kind.BRANCH, "Multiple potential branches"), List.of("refs/heads/main", "refs/heads/1.2"), Function.identity()));
+        Assertions.assertEquals(409, e.getResponse().getStatus());
+        Assertions.assertEquals("Multiple potential branches\nrefs/heads/main\nrefs/heads/1.2\n", e.getResponse().getEntity());
+    }
+
+    private static Choice choice(Choice.Kind kind, String prompt) {
+        return new Choice(kind, "https://github.com/quarkusio/quarkus-http.git", null, prompt);
+    }
+}
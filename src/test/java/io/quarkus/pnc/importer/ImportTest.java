@@ -0,0 +1,215 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfiguration;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRef;
+import io.quarkus.pnc.importer.rest.BuildConfigurationRevisionRef;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class ImportTest {
+
+    @Test
+    public void testDistinctBuilds() {
+        //a jar matched by identifier and by checksum, and two jars from one build
+        Artifact core = artifact("1", "B1");
+        Artifact coreByChecksum = artifact("1", "B1");
+        Artifact deployment = artifact("2", "B1");
+        Artifact other = artifact("3", "B2");
+
+        List<Artifact> distinct = Import.distinctBuilds(List.of(core, other, coreByChecksum, deployment));
+        Assertions.assertEquals(List.of("B1", "B2"),
+                distinct.stream().map(a -> a.getBuild().getId()).collect(Collectors.toList()));
+        Assertions.assertSame(core, distinct.get(0));
+    }
+
+    @Test
+    public void testFetchAll() {
+        //later requests complete first, so the entities arrive out of order
+        List<String> ids = List.of("1", "2", "3", "4", "5", "6");
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<String> fetched = Import.fetchAll(ids, id -> Uni.createFrom().completionStage(() -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(10L * (10 - Integer.parseInt(id)));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                inFlight.decrementAndGet();
+                //a build config that was never built has no latest build
+                return id.equals("4") ? null : "entity-" + id;
+            });
+        }), 3);
+        Assertions.assertEquals(Arrays.asList("entity-1", "entity-2", "entity-3", null, "entity-5", "entity-6"), fetched);
+        Assertions.assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    public void testByRepository() {
+        Map<String, BuildSource> sources = new LinkedHashMap<>();
+        sources.put("quarkus-http", source("1", "https://github.com/quarkusio/quarkus-http.git"));
+        sources.put("smallrye-config", source("2", "https://github.com/smallrye/smallrye-config.git"));
+        sources.put("quarkus-http-core", source("3", "https://github.com/quarkusio/quarkus-http.git"));
+        Assertions.assertEquals(Map.of(
+                "https://github.com/quarkusio/quarkus-http.git", List.of("quarkus-http", "quarkus-http-core"),
+                "https://github.com/smallrye/smallrye-config.git", List.of("smallrye-config")), Import.byRepository(sources));
+        Assertions.assertEquals(List.of("https://github.com/quarkusio/quarkus-http.git", "https://github.com/smallrye/smallrye-config.git"),
+                List.copyOf(Import.byRepository(sources).keySet()));
+    }
+
+    @Test
+    public void testMissingDependencies() throws Exception {
+        //quarkus-http depends on smallrye-common and smallrye-config, which both depend on jboss-logging, which depends on
+        //quarkus-fs-util that is already imported, and smallrye-config depends on an older quarkus-http
+        ConfigPncClient pncClient = new ConfigPncClient(
+                config("1", "quarkus-http-4.1.7", true, "2", "3"),
+                config("2", "smallrye-common-1.10.0", true, "4"),
+                config("3", "smallrye-config-2.9.0", true, "4", "6"),
+                config("4", "jboss-logging-3.4.3", true, "5"),
+                config("5", "quarkus-fs-util-0.0.9", false),
+                config("6", "quarkus-http-4.1.6", false));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Import command = command(pncClient);
+            List<BuildConfiguration> missing = command.missingDependencies(Set.of("1"), executor);
+            Assertions.assertEquals(Set.of("smallrye-common-1.10.0", "smallrye-config-2.9.0", "jboss-logging-3.4.3"),
+                    missing.stream().map(BuildConfiguration::getName).collect(Collectors.toSet()));
+            Assertions.assertEquals(Map.of("1", 1, "2", 1, "3", 1, "4", 1, "5", 1, "6", 1), pncClient.calls);
+            Assertions.assertFalse(pncClient.calledFromEventLoop, "build configs were looked up on the event loop");
+
+            //a missing dependency that cannot be imported stops the import, instead of exiting
+            pncClient.configs.put("4", config("4", "jboss-logging-3.4.3", false, "5"));
+            var e = Assertions.assertThrows(Import.ImportException.class,
+                    () -> command(pncClient).missingDependencies(Set.of("1"), executor));
+            Assertions.assertTrue(e.getMessage().contains("(required by dependency jboss-logging-3.4.3)"), e.getMessage());
+        } finally {
+            executor.shutdown();
+            pncClient.eventLoop.shutdown();
+        }
+    }
+
+    @Test
+    public void testResultsAreWrittenTogether() throws Exception {
+        Import command = command(null);
+        Path upstreamSources = command.path.resolve("upstream_sources.yml");
+        Files.writeString(upstreamSources, "- url: https://github.com/quarkusio/quarkus-fs-util.git\n");
+        ImportResult result = new ImportResult("jboss-logging-version", "3.4.3.Final",
+                List.of("  - name: \"{{ jboss-logging-version }}\"", "    project: jboss-logging/jboss-logging"),
+                "- url: https://github.com/jboss-logging/jboss-logging.git\n");
+        command.writeResults(List.of(result));
+        Assertions.assertEquals("- url: https://github.com/quarkusio/quarkus-fs-util.git\n"
+                + "- url: https://github.com/jboss-logging/jboss-logging.git\n", Files.readString(upstreamSources));
+        var config = BuildConfigYaml.read(command.path.resolve("build-config.yaml"));
+        Assertions.assertEquals(Set.of("quarkus-fs-util-version", "jboss-logging-version"), config.getVersions().keySet());
+
+        //the build config cannot be written, so the upstream sources are not changed either
+        byte[] buildConfig = Files.readAllBytes(command.path.resolve("build-config.yaml"));
+        byte[] sources = Files.readAllBytes(upstreamSources);
+        ImportResult broken = new ImportResult("smallrye-config-version", "2.9.0", null,
+                "- url: https://github.com/smallrye/smallrye-config.git\n");
+        Assertions.assertThrows(RuntimeException.class, () -> command.writeResults(List.of(broken)));
+        Assertions.assertArrayEquals(sources, Files.readAllBytes(upstreamSources));
+        Assertions.assertArrayEquals(buildConfig, Files.readAllBytes(command.path.resolve("build-config.yaml")));
+        try (var files = Files.list(command.path)) {
+            Assertions.assertEquals(Set.of("build-config.yaml", "upstream_sources.yml"),
+                    files.map(f -> f.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+
+    private static Import command(PncClient pncClient) throws Exception {
+        Import command = new Import();
+        command.pncClient = pncClient;
+        command.timings = new Timings();
+        command.path = Files.createTempDirectory("checkout");
+        Files.write(command.path.resolve("build-config.yaml"), List.of(
+                "#!quarkus-fs-util-version=0.0.8",
+                "builds:",
+                "",
+                "  - name: \"{{ quarkus-fs-util-version }}\"",
+                "    project: quarkusio/quarkus-fs-util"));
+        return command;
+    }
+
+    static BuildConfiguration config(String id, String name, boolean preBuildSync, String... dependencies) {
+        Map<String, BuildConfigurationRef> refs = new LinkedHashMap<>();
+        for (var dependency : dependencies) {
+            refs.put(dependency, BuildConfigurationRef.refBuilder().id(dependency).build());
+        }
+        return BuildConfiguration.builder()
+                .id(id)
+                .name(name)
+                .scmRepository(SCMRepository.builder().externalUrl("https://github.com/example/" + name + ".git").preBuildSyncEnabled(preBuildSync).build())
+                .dependencies(refs)
+                .build();
+    }
+
+    /**
+     * Serves build configs, completing them on a separate thread like the Vert.x event loop does.
+     */
+    static class ConfigPncClient extends PncClient {
+
+        final Map<String, BuildConfiguration> configs = new ConcurrentHashMap<>();
+        final Map<String, Integer> calls = new ConcurrentHashMap<>();
+        final ExecutorService eventLoop = Executors.newSingleThreadExecutor(r -> new Thread(r, "event-loop"));
+        volatile boolean calledFromEventLoop;
+
+        ConfigPncClient(BuildConfiguration... configs) {
+            for (var config : configs) {
+                this.configs.put(config.getId(), config);
+            }
+        }
+
+        @Override
+        public Uni<BuildConfiguration> getBuildConfiguration(String id) {
+            calls.merge(id, 1, Integer::sum);
+            if (Thread.currentThread().getName().equals("event-loop")) {
+                calledFromEventLoop = true;
+            }
+            return Uni.createFrom().completionStage(CompletableFuture.supplyAsync(() -> {
+                try {
+                    //the response arrives after the caller has moved on
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return configs.get(id);
+            }, eventLoop));
+        }
+    }
+
+    static BuildSource source(String buildConfigId, String url) {
+        return BuildSource.of(Build.builder()
+                .id("B" + buildConfigId)
+                .scmTag("1.0.0.redhat-00001")
+                .scmRepository(SCMRepository.builder().externalUrl(url).build())
+                .buildConfigRevision(BuildConfigurationRevisionRef.refBuilder().id(buildConfigId).build())
+                .build());
+    }
+
+    static Artifact artifact(String id, String buildId) {
+        return Artifact.builder()
+                .id(id)
+                .identifier("io.quarkus:quarkus-" + id + ":jar:1.0.0.redhat-00001")
+                .build(Build.builder().id(buildId).build())
+                .build();
+    }
+}
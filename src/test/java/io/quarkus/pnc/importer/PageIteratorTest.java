@@ -0,0 +1,122 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Page;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PageIteratorTest {
+
+    @Test
+    public void testAllPages() {
+        FakeFetcher fetcher = new FakeFetcher(25, 10, false);
+        var results = new PageIterator<>(fetcher, Integer.MAX_VALUE);
+        Assertions.assertEquals(range(0, 25), drain(results));
+        Assertions.assertEquals(List.of(0, 1, 2), fetcher.requested);
+        Assertions.assertFalse(results.isTruncated());
+    }
+
+    @Test
+    public void testNextPageIsPrefetched() {
+        FakeFetcher fetcher = new FakeFetcher(25, 10, false);
+        var results = new PageIterator<>(fetcher, Integer.MAX_VALUE);
+        Assertions.assertEquals(List.of(0), fetcher.requested);
+        Assertions.assertEquals(0, results.next());
+        //the second page is on its way while the first one is read
+        Assertions.assertEquals(List.of(0, 1), fetcher.requested);
+        for (int i = 1; i < 10; ++i) {
+            results.next();
+        }
+        Assertions.assertEquals(List.of(0, 1), fetcher.requested);
+        Assertions.assertEquals(10, results.next());
+        Assertions.assertEquals(List.of(0, 1, 2), fetcher.requested);
+    }
+
+    @Test
+    public void testMaxResults() {
+        FakeFetcher fetcher = new FakeFetcher(25, 10, false);
+        var results = new PageIterator<>(fetcher, 15);
+        Assertions.assertEquals(range(0, 15), drain(results));
+        Assertions.assertTrue(results.isTruncated());
+        //enough results have been requested, the last page is not
+        Assertions.assertEquals(List.of(0, 1), fetcher.requested);
+
+        //stopping at the end of a page, with more pages left
+        results = new PageIterator<>(new FakeFetcher(25, 10, false), 20);
+        Assertions.assertEquals(range(0, 20), drain(results));
+        Assertions.assertTrue(results.isTruncated());
+
+        results = new PageIterator<>(new FakeFetcher(25, 10, false), 25);
+        Assertions.assertEquals(range(0, 25), drain(results));
+        Assertions.assertFalse(results.isTruncated());
+    }
+
+    @Test
+    public void testUnknownTotalPages() {
+        //without a total, a page that is not full is the last one
+        FakeFetcher fetcher = new FakeFetcher(25, 10, true);
+        Assertions.assertEquals(range(0, 25), drain(new PageIterator<>(fetcher, Integer.MAX_VALUE)));
+        Assertions.assertEquals(List.of(0, 1, 2), fetcher.requested);
+
+        //and an empty page when the results fill the pages exactly
+        fetcher = new FakeFetcher(20, 10, true);
+        var results = new PageIterator<>(fetcher, Integer.MAX_VALUE);
+        Assertions.assertEquals(range(0, 20), drain(results));
+        Assertions.assertEquals(List.of(0, 1, 2), fetcher.requested);
+        Assertions.assertFalse(results.isTruncated());
+    }
+
+    @Test
+    public void testFailuresArePassedOn() {
+        IllegalStateException failure = new IllegalStateException("PNC is down");
+        var results = new PageIterator<Integer>(pageIndex -> CompletableFuture.failedFuture(failure), 10);
+        Assertions.assertSame(failure, Assertions.assertThrows(IllegalStateException.class, results::hasNext));
+    }
+
+    private static List<Integer> drain(PageIterator<Integer> results) {
+        List<Integer> all = new ArrayList<>();
+        while (results.hasNext()) {
+            all.add(results.next());
+        }
+        return all;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Serves the numbers up to a total a page at a time, recording which pages were requested.
+     */
+    static class FakeFetcher implements IntFunction<CompletableFuture<Page<Integer>>> {
+
+        final int total;
+        final int pageSize;
+        final boolean unknownTotal;
+        final List<Integer> requested = new ArrayList<>();
+
+        FakeFetcher(int total, int pageSize, boolean unknownTotal) {
+            this.total = total;
+            this.pageSize = pageSize;
+            this.unknownTotal = unknownTotal;
+        }
+
+        @Override
+        public CompletableFuture<Page<Integer>> apply(int pageIndex) {
+            requested.add(pageIndex);
+            int from = Math.min(pageIndex * pageSize, total);
+            var page = new Page<>(pageIndex, pageSize, total, range(from, Math.min(from + pageSize, total)));
+            if (unknownTotal) {
+                page.setTotalPages(-1);
+                page.setTotalHits(-1);
+            }
+            return CompletableFuture.completedFuture(page);
+        }
+    }
+}
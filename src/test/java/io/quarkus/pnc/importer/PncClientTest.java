@@ -0,0 +1,224 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.BuildConfiguration;
+import io.quarkus.pnc.importer.rest.BuildConfigurationEndpoint;
+import io.quarkus.pnc.importer.rest.GroupConfiguration;
+import io.quarkus.pnc.importer.rest.GroupConfigurationEndpoint;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.PageParameters;
+import io.quarkus.pnc.importer.rest.ProductVersion;
+import io.quarkus.pnc.importer.rest.ProductVersionEndpoint;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PncClientTest {
+
+    @Test
+    public void testServerErrorsAreRetried() {
+        FailingEndpoint endpoint = new FailingEndpoint(503, 2);
+        var config = client(endpoint).getBuildConfiguration("42").await().indefinitely();
+        Assertions.assertEquals("42", config.getId());
+        Assertions.assertEquals(3, endpoint.calls.get());
+    }
+
+    @Test
+    public void testClientErrorsAreNotRetried() {
+        FailingEndpoint endpoint = new FailingEndpoint(404, 1);
+        var e = Assertions.assertThrows(WebApplicationException.class,
+                () -> client(endpoint).getBuildConfiguration("42").await().indefinitely());
+        Assertions.assertEquals(404, e.getResponse().getStatus());
+        Assertions.assertEquals(1, endpoint.calls.get());
+    }
+
+    @Test
+    public void testRetriesAreLimited() {
+        FailingEndpoint endpoint = new FailingEndpoint(502, 10);
+        Assertions.assertThrows(WebApplicationException.class,
+                () -> client(endpoint).getBuildConfiguration("42").await().indefinitely());
+        Assertions.assertEquals(4, endpoint.calls.get());
+    }
+
+    @Test
+    public void testLatestSuccessfulBuild() {
+        BuildsEndpoint endpoint = new BuildsEndpoint(List.of(Build.builder().id("100").scmTag("1.0.0.redhat-00002").build()));
+        Build build = client(endpoint).getLatestSuccessfulBuild("42").await().indefinitely();
+        Assertions.assertEquals("100", build.getId());
+        PageParameters pageParams = endpoint.requests.get(0);
+        Assertions.assertEquals("status==\"SUCCESS\";temporaryBuild==\"false\"", pageParams.getQ());
+        Assertions.assertEquals("sort=desc=submitTime", pageParams.getSort());
+        Assertions.assertEquals(1, pageParams.getPageSize());
+
+        Assertions.assertNull(client(new BuildsEndpoint(List.of())).getLatestSuccessfulBuild("42").await().indefinitely());
+    }
+
+    @Test
+    public void testGroupConfigsAndProductVersions() {
+        PncClient client = client(new FailingEndpoint(503, 0));
+        AtomicInteger calls = new AtomicInteger();
+        client.groupConfigurationEndpoint = new GroupConfigurationEndpoint() {
+            @Override
+            public Page<GroupConfiguration> getAll(PageParameters pageParams) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public GroupConfiguration getSpecific(String id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Uni<GroupConfiguration> getSpecificAsync(String id) {
+                if (calls.incrementAndGet() == 1) {
+                    return Uni.createFrom().failure(new WebApplicationException(503));
+                }
+                return Uni.createFrom().item(GroupConfiguration.builder().id(id).name("quarkus-2.7").build());
+            }
+        };
+        client.productVersionEndpoint = new ProductVersionEndpoint() {
+            @Override
+            public Page<ProductVersion> getAll(PageParameters pageParams) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ProductVersion getSpecific(String id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Uni<ProductVersion> getSpecificAsync(String id) {
+                return Uni.createFrom().item(ProductVersion.builder().id(id).version("2.7").build());
+            }
+        };
+        Assertions.assertEquals("quarkus-2.7", client.getGroupConfiguration("7").await().indefinitely().getName());
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals("2.7", client.getProductVersion("8").await().indefinitely().getVersion());
+    }
+
+    @Test
+    public void testUnknownGroupConfigsAndProductVersions() {
+        PncClient client = client(new FailingEndpoint(503, 0));
+        client.groupConfigurationEndpoint = new GroupConfigurationEndpoint() {
+            @Override
+            public Page<GroupConfiguration> getAll(PageParameters pageParams) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public GroupConfiguration getSpecific(String id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Uni<GroupConfiguration> getSpecificAsync(String id) {
+                return Uni.createFrom().failure(new WebApplicationException(404));
+            }
+        };
+        client.productVersionEndpoint = new ProductVersionEndpoint() {
+            @Override
+            public Page<ProductVersion> getAll(PageParameters pageParams) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ProductVersion getSpecific(String id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Uni<ProductVersion> getSpecificAsync(String id) {
+                return Uni.createFrom().failure(new WebApplicationException(404));
+            }
+        };
+        //a mistyped id on the command line is reported as a message, rather than a stack trace
+        Import command = new Import();
+        command.pncClient = client;
+        command.timings = new Timings();
+        command.threads = 2;
+        command.groupConfigs = List.of("77");
+        var e = Assertions.assertThrows(Import.ImportException.class, command::groupBuildConfigs);
+        Assertions.assertEquals("No group config 77", e.getMessage());
+
+        command.groupConfigs = List.of();
+        command.productVersions = List.of("88");
+        e = Assertions.assertThrows(Import.ImportException.class, command::groupBuildConfigs);
+        Assertions.assertEquals("No product version 88", e.getMessage());
+    }
+
+    private static PncClient client(BuildConfigurationEndpoint endpoint) {
+        PncClient client = new PncClient();
+        client.buildConfigurationEndpoint = endpoint;
+        client.cache = new PncResponseCache();
+        client.cache.disable();
+        client.buildConfigsTimeout = Duration.ofSeconds(10);
+        client.retries = 3;
+        client.retryBackoff = Duration.ofMillis(1);
+        return client;
+    }
+
+    /**
+     * Fails with the given status the given number of times, then returns the build config.
+     */
+    static class FailingEndpoint implements BuildConfigurationEndpoint {
+
+        final int status;
+        final int failures;
+        final AtomicInteger calls = new AtomicInteger();
+
+        FailingEndpoint(int status, int failures) {
+            this.status = status;
+            this.failures = failures;
+        }
+
+        @Override
+        public Page<BuildConfiguration> getAll(PageParameters pageParams) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BuildConfiguration getSpecific(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Uni<BuildConfiguration> getSpecificAsync(String id) {
+            if (calls.incrementAndGet() <= failures) {
+                return Uni.createFrom().failure(new WebApplicationException(status));
+            }
+            return Uni.createFrom().item(BuildConfiguration.builder().id(id).name("quarkus-http-4.1.7").build());
+        }
+
+        @Override
+        public Uni<Page<Build>> getBuildsAsync(String id, PageParameters pageParams) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Returns the given builds as a single page, recording the requests.
+     */
+    static class BuildsEndpoint extends FailingEndpoint {
+
+        final List<Build> builds;
+        final List<PageParameters> requests = new ArrayList<>();
+
+        BuildsEndpoint(List<Build> builds) {
+            super(503, 0);
+            this.builds = builds;
+        }
+
+        @Override
+        public Uni<Page<Build>> getBuildsAsync(String id, PageParameters pageParams) {
+            requests.add(pageParams);
+            return Uni.createFrom().item(new Page<>(0, pageParams.getPageSize(), builds.size(), builds));
+        }
+    }
+}
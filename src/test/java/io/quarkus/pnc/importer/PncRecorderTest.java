@@ -0,0 +1,40 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class PncRecorderTest {
+
+    @Test
+    public void testResponsesAreStoredRelativeToThePncUrl() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-record");
+        try {
+            PncRecorder recorder = new PncRecorder();
+            recorder.directory = Optional.empty();
+            recorder.pncUrl = Optional.of("https://pnc.example.com/pnc-rest/v2");
+            Assertions.assertFalse(recorder.isRecording());
+            recorder.record(dir);
+            Assertions.assertTrue(recorder.isRecording());
+
+            recorder.save(URI.create("https://pnc.example.com/pnc-rest/v2/artifacts?q=identifier%3Dlike%3D%25foo%25&pageIndex=0"),
+                    "{}".getBytes(StandardCharsets.UTF_8));
+            recorder.save(URI.create("https://pnc.example.com/pnc-rest/v2/build-configs/42"),
+                    "{\"id\":\"42\"}".getBytes(StandardCharsets.UTF_8));
+
+            //the keys the replay server will look up, as it is served from the root
+            Assertions.assertEquals("{}", Files.readString(dir.resolve(
+                    PncResponseCache.fileName(PncRecorder.key("/artifacts", "q=identifier%3Dlike%3D%25foo%25&pageIndex=0")))));
+            Assertions.assertEquals("{\"id\":\"42\"}", Files.readString(dir.resolve(
+                    PncResponseCache.fileName(PncRecorder.key("/build-configs/42", null)))));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+}
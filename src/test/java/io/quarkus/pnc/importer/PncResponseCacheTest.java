@@ -0,0 +1,192 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PncResponseCacheTest {
+
+    private static final TypeReference<String> STRING = new TypeReference<>() {
+    };
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * The clock of the caches a test creates, moved forward rather than sleeping until entries expire.
+     */
+    private final TestClock clock = new TestClock();
+
+    @Test
+    public void testResponsesAreReused() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-cache");
+        try {
+            PncResponseCache cache = cache(dir, Duration.ofHours(1));
+            Assertions.assertEquals("build-configs/1", get(cache, "build-configs/1"));
+            Assertions.assertEquals("build-configs/1", get(cache, "build-configs/1"));
+            Assertions.assertEquals(1, loads.get());
+
+            //a later run reads the response from disk
+            Assertions.assertEquals("build-configs/1", get(cache(dir, Duration.ofHours(1)), "build-configs/1"));
+            Assertions.assertEquals(1, loads.get());
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testExpiredResponsesAreLoadedAgain() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-cache");
+        try {
+            PncResponseCache cache = cache(dir, Duration.ofMillis(50));
+            get(cache, "build-configs/1");
+            clock.advance(Duration.ofMillis(100));
+            get(cache, "build-configs/1");
+            Assertions.assertEquals(2, loads.get());
+
+            get(cache(dir, Duration.ofMillis(50)), "build-configs/1");
+            Assertions.assertEquals(2, loads.get());
+            clock.advance(Duration.ofMillis(100));
+            get(cache(dir, Duration.ofMillis(50)), "build-configs/1");
+            Assertions.assertEquals(3, loads.get());
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testEntryForAnotherKeyIsIgnored() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-cache");
+        try {
+            get(cache(dir, Duration.ofHours(1)), "build-configs/2");
+            //as if the two keys had the same file name
+            Files.move(dir.resolve(PncResponseCache.fileName("build-configs/2")), dir.resolve(PncResponseCache.fileName("build-configs/1")));
+
+            Assertions.assertEquals("build-configs/1", get(cache(dir, Duration.ofHours(1)), "build-configs/1"));
+            Assertions.assertEquals(2, loads.get());
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-cache");
+        try {
+            PncResponseCache cache = cache(dir, Duration.ofHours(1));
+            get(cache, "build-configs/1");
+            long size = Files.size(dir.resolve(PncResponseCache.fileName("build-configs/1")));
+            //room for three entries
+            cache.maxSize = new MemorySize(BigInteger.valueOf(size * 7 / 2));
+            get(cache, "build-configs/2");
+            get(cache, "build-configs/3");
+            long now = System.currentTimeMillis();
+            Files.setLastModifiedTime(dir.resolve(PncResponseCache.fileName("build-configs/1")), FileTime.fromMillis(now - 1000));
+            Files.setLastModifiedTime(dir.resolve(PncResponseCache.fileName("build-configs/2")), FileTime.fromMillis(now - 3000));
+            Files.setLastModifiedTime(dir.resolve(PncResponseCache.fileName("build-configs/3")), FileTime.fromMillis(now - 2000));
+
+            get(cache, "build-configs/4");
+            Assertions.assertTrue(Files.exists(dir.resolve(PncResponseCache.fileName("build-configs/1"))));
+            Assertions.assertFalse(Files.exists(dir.resolve(PncResponseCache.fileName("build-configs/2"))));
+            Assertions.assertTrue(Files.exists(dir.resolve(PncResponseCache.fileName("build-configs/3"))));
+            Assertions.assertTrue(Files.exists(dir.resolve(PncResponseCache.fileName("build-configs/4"))));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testReplacedEntriesDoNotGrowTheCache() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-cache");
+        try {
+            PncResponseCache cache = cache(dir, Duration.ofMillis(1));
+            get(cache, "build-configs/1");
+            long size = Files.size(dir.resolve(PncResponseCache.fileName("build-configs/1")));
+            cache.maxSize = new MemorySize(BigInteger.valueOf(size * 3 / 2));
+            for (int i = 0; i < 5; ++i) {
+                clock.advance(Duration.ofMillis(5));
+                get(cache, "build-configs/1");
+            }
+            Assertions.assertEquals(6, loads.get());
+            Assertions.assertTrue(Files.exists(dir.resolve(PncResponseCache.fileName("build-configs/1"))));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testDisabledCache() throws Exception {
+        Path dir = Files.createTempDirectory("pnc-cache");
+        try {
+            PncResponseCache cache = cache(dir, Duration.ofHours(1));
+            cache.disable();
+            get(cache, "build-configs/1");
+            get(cache, "build-configs/1");
+            Assertions.assertEquals(2, loads.get());
+            try (var files = Files.list(dir)) {
+                Assertions.assertEquals(0, files.count());
+            }
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    private String get(PncResponseCache cache, String key) {
+        return cache.get(key, STRING, () -> Uni.createFrom().item(() -> {
+            loads.incrementAndGet();
+            return key;
+        })).await().indefinitely();
+    }
+
+    private PncResponseCache cache(Path dir, Duration ttl) {
+        PncResponseCache cache = new PncResponseCache();
+        cache.enabled = true;
+        cache.ttl = ttl;
+        cache.maxEntries = 100;
+        cache.directory = Optional.of(dir.toString());
+        cache.maxSize = new MemorySize(BigInteger.valueOf(1024 * 1024));
+        cache.mapper = new ObjectMapper();
+        cache.writer = ForkJoinPool.commonPool();
+        cache.clock = clock;
+        return cache;
+    }
+
+    private static final class TestClock extends Clock {
+        private volatile Instant now = Instant.parse("2022-04-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.quarkus.pnc.importer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class QueryPlannerTest {
+
+    @Test
+    public void testExactPom() {
+        Assertions.assertEquals(List.of(
+                "identifier==\"io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001\";build=isnull=false",
+                "identifier=like=\"io.quarkus.http:quarkus-http-core:pom:%\";build=isnull=false",
+                "identifier=like=\"%io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001%\";identifier=like=\"%:pom:%\";build=isnull=false"),
+                plan("io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-00001"));
+    }
+
+    @Test
+    public void testGroupArtifactVersion() {
+        Assertions.assertEquals(List.of(
+                "identifier==\"io.quarkus.http:quarkus-http-core:pom:4.1.7\";build=isnull=false",
+                "identifier=like=\"io.quarkus.http:quarkus-http-core:pom:%\";build=isnull=false",
+                "identifier=like=\"%io.quarkus.http:quarkus-http-core:4.1.7%\";identifier=like=\"%:pom:%\";build=isnull=false"),
+                plan("io.quarkus.http:quarkus-http-core:4.1.7"));
+    }
+
+    @Test
+    public void testGroupArtifact() {
+        Assertions.assertEquals(List.of(
+                "identifier=like=\"io.quarkus.http:quarkus-http-core:pom:%\";build=isnull=false",
+                "identifier=like=\"%io.quarkus.http:quarkus-http-core%\";identifier=like=\"%:pom:%\";build=isnull=false"),
+                plan("io.quarkus.http:quarkus-http-core"));
+    }
+
+    @Test
+    public void testFragments() {
+        Assertions.assertEquals(List.of("identifier=like=\"%fs-utils%\";identifier=like=\"%:pom:%\";build=isnull=false"), plan("fs-utils"));
+        //not coordinates, so only a substring match
+        Assertions.assertEquals(1, plan("io.quarkus:quarkus-core:jar:2.8.1:sources").size());
+        Assertions.assertEquals(1, plan("io.quarkus:quarkus-%").size());
+        Assertions.assertEquals(1, plan(":quarkus-core").size());
+    }
+
+    private static List<String> plan(String input) {
+        return QueryPlanner.plan(input).stream().map(Rsql::toString).collect(Collectors.toList());
+    }
+}
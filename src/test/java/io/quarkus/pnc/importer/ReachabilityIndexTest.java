@@ -0,0 +1,43 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ReachabilityIndexTest {
+
+    @Test
+    public void testBranchesContainingTheTaggedCommit() throws Exception {
+        Path dir = Files.createTempDirectory("reachability");
+        try (Git git = Git.init().setInitialBranch("main").setDirectory(dir.toFile()).call()) {
+            RevCommit first = git.commit().setMessage("first").setAllowEmpty(true).call();
+            RevCommit tagged = git.commit().setMessage("tagged").setAllowEmpty(true).call();
+            git.commit().setMessage("after the tag").setAllowEmpty(true).call();
+            //a branch that was cut before the tagged commit
+            git.checkout().setCreateBranch(true).setName("old").setStartPoint(first).call();
+            git.commit().setMessage("old fix").setAllowEmpty(true).call();
+
+            var repository = git.getRepository();
+            List<Ref> branches = List.of(repository.exactRef("refs/heads/old"), repository.exactRef("refs/heads/main"));
+            Assertions.assertEquals(List.of("refs/heads/main"),
+                    names(ReachabilityIndex.branchesContaining(repository, tagged, branches)));
+            //both branches have the commit they were started from
+            Assertions.assertEquals(List.of("refs/heads/old", "refs/heads/main"),
+                    names(ReachabilityIndex.branchesContaining(repository, first, branches)));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    private static List<String> names(List<Ref> refs) {
+        return refs.stream().map(Ref::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,120 @@
+package io.quarkus.pnc.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.ArtifactEndpoint;
+import io.quarkus.pnc.importer.rest.Build;
+import io.quarkus.pnc.importer.rest.Page;
+import io.quarkus.pnc.importer.rest.PageParameters;
+import io.quarkus.pnc.importer.rest.SCMRepository;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RsqlTest {
+
+    @Test
+    public void testQueryRendering() {
+        Assertions.assertEquals("identifier=like=\"%fs-utils%\"", Rsql.like("identifier", "%fs-utils%").toString());
+        Assertions.assertEquals("identifier==\"a\\\"b\"", Rsql.eq("identifier", "a\"b").toString());
+        Assertions.assertEquals("sha256=in=(\"ab\",\"cd\")", Rsql.in("sha256", List.of("ab", "cd")).toString());
+        Assertions.assertEquals("modificationTime=gt=\"2022-04-01T10:15:30Z\"", Rsql.gt("modificationTime", "2022-04-01T10:15:30Z").toString());
+        Assertions.assertEquals("modificationTime=ge=\"2022-04-01T10:15:30Z\"", Rsql.ge("modificationTime", "2022-04-01T10:15:30Z").toString());
+        Assertions.assertEquals("a==\"1\";(b==\"2\",c==\"3\")",
+                Rsql.eq("a", "1").and(Rsql.eq("b", "2").or(Rsql.eq("c", "3"))).toString());
+        Assertions.assertEquals("identifier=like=\"%fs-utils%\";identifier=like=\"%:pom:%\";build=isnull=false",
+                BuildImporter.candidateQuery("fs-utils").toString());
+    }
+
+    @Test
+    public void testPomFilterReducesPayload() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        StubArtifactEndpoint endpoint = new StubArtifactEndpoint();
+
+        PageParameters clientSide = new PageParameters();
+        clientSide.setQ(Rsql.like("identifier", "%fs-utils%").toString());
+        Page<Artifact> unfiltered = endpoint.getAll(clientSide, null, null, null);
+        Page<Artifact> filtered = endpoint.getAll(BuildImporter.candidateQuery("fs-utils").applyTo(new PageParameters()), null, null, null);
+
+        List<String> expected = unfiltered.getContent().stream()
+                .filter(a -> a.getBuild() != null && a.getIdentifier().contains(":pom:"))
+                .map(Artifact::getIdentifier)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, filtered.getContent().stream().map(Artifact::getIdentifier).collect(Collectors.toList()));
+
+        //only the pom of the 40 versions with a build is left out of the 200 artifacts
+        Assertions.assertEquals(200, unfiltered.getContent().size());
+        Assertions.assertEquals(40, filtered.getContent().size());
+        int before = mapper.writeValueAsBytes(unfiltered).length;
+        int after = mapper.writeValueAsBytes(filtered).length;
+        Assertions.assertTrue(after * 4 < before, "Expected filtering to remove most of the payload, was " + before + " -> " + after);
+    }
+
+    /**
+     * Returns a jar, sources jar, javadoc jar and pom for every version of a project, and supports just enough of
+     * RSQL to apply the filters generated by {@link BuildImporter#candidateQuery(String)}.
+     */
+    static class StubArtifactEndpoint implements ArtifactEndpoint {
+
+        final List<Artifact> artifacts = new ArrayList<>();
+
+        StubArtifactEndpoint() {
+            SCMRepository repository = SCMRepository.builder()
+                    .id("1")
+                    .externalUrl("https://github.com/quarkusio/quarkus-fs-utils.git")
+                    .internalUrl("git+ssh://code.example.com/quarkusio/quarkus-fs-utils.git")
+                    .preBuildSyncEnabled(true)
+                    .build();
+            int id = 0;
+            for (int i = 0; i < 50; ++i) {
+                String version = "0." + i + ".0.redhat-00001";
+                Build build = i % 5 == 0 ? null : Build.builder()
+                        .id(Integer.toString(i))
+                        .scmRepository(repository)
+                        .scmRevision("0123456789abcdef0123456789abcdef0123456" + (i % 10))
+                        .scmTag("0." + i + ".0.redhat-00001")
+                        .startTime(Instant.ofEpochSecond(1650000000L + i))
+                        .build();
+                for (String type : List.of("jar:", "jar:sources", "jar:javadoc", "pom:")) {
+                    String[] parts = type.split(":", -1);
+                    artifacts.add(Artifact.builder()
+                            .id(Integer.toString(id++))
+                            .identifier("io.quarkus:quarkus-fs-utils:" + parts[0] + ":" + version + (parts[1].isEmpty() ? "" : ":" + parts[1]))
+                            .filename("quarkus-fs-utils-" + version + (parts[1].isEmpty() ? "" : "-" + parts[1]) + "." + parts[0])
+                            .md5("d41d8cd98f00b204e9800998ecf8427e")
+                            .sha1("da39a3ee5e6b4b0d3255bfef95601890afd80709")
+                            .sha256("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+                            .build(build)
+                            .build());
+                }
+            }
+        }
+
+        @Override
+        public Page<Artifact> getAll(PageParameters pageParams, String sha256, String md5, String sha1) {
+            String q = pageParams.getQ();
+            boolean pomOnly = q.contains(Rsql.like("identifier", "%:pom:%").toString());
+            boolean withBuild = q.contains(Rsql.isNull("build", false).toString());
+            List<Artifact> result = artifacts.stream()
+                    .filter(a -> !pomOnly || a.getIdentifier().contains(":pom:"))
+                    .filter(a -> !withBuild || a.getBuild() != null)
+                    .collect(Collectors.toList());
+            return new Page<>(0, Math.max(1, result.size()), result.size(), result);
+        }
+
+        @Override
+        public Uni<Page<Artifact>> getAllAsync(PageParameters pageParams, String sha256, String md5, String sha1) {
+            return Uni.createFrom().item(getAll(pageParams, sha256, md5, sha1));
+        }
+
+        @Override
+        public Uni<Artifact> getSpecificAsync(String id) {
+            return Uni.createFrom().item(artifacts.get(Integer.parseInt(id)));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.quarkus.pnc.importer;
+
+import io.quarkus.pnc.importer.rest.Artifact;
+import io.quarkus.pnc.importer.rest.Build;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+public class SelectionPolicyTest {
+
+    static final String REPO = "https://github.com/quarkusio/quarkus-http.git";
+
+    @Test
+    public void testAutomaticChoices() {
+        SelectionPolicy policy = SelectionPolicy.create(true, null);
+        Assertions.assertEquals("refs/tags/4.1.7", policy.choose(new Choice(Choice.Kind.TAG, REPO, "4.1.7", "tags"),
+                List.of("refs/tags/4.1.7-CR1", "refs/tags/4.1.7", "refs/tags/4.1.70"), Function.identity()));
+        Assertions.assertEquals("refs/heads/4.10.x", policy.choose(new Choice(Choice.Kind.BRANCH, REPO, "4.1.7", "branches"),
+                List.of("refs/heads/main", "refs/heads/4.9", "refs/heads/4.10.x", "refs/heads/feature"), Function.identity()));
+        Assertions.assertEquals("refs/heads/main", policy.choose(new Choice(Choice.Kind.BRANCH, REPO, "4.1.7", "branches"),
+                List.of("refs/heads/main", "refs/heads/feature"), Function.identity()));
+        //the branch the tag was released from wins over newer ones, and the most specific one over its parents
+        Assertions.assertEquals("refs/heads/4.1.x", policy.choose(new Choice(Choice.Kind.BRANCH, REPO, "4.1.7.Final", "branches"),
+                List.of("refs/heads/main", "refs/heads/4", "refs/heads/4.1.x", "refs/heads/4.2.x", "refs/heads/4.10.x"), Function.identity()));
+        //numbers too long for an int or a long
+        Assertions.assertEquals("refs/heads/202204011230450000000", policy.choose(new Choice(Choice.Kind.BRANCH, REPO, "4.1.7", "branches"),
+                List.of("refs/heads/main", "refs/heads/20220401123045", "refs/heads/202204011230450000000"), Function.identity()));
+
+        Artifact older = artifact("1", Instant.ofEpochSecond(1000));
+        Artifact newer = artifact("2", Instant.ofEpochSecond(2000));
+        Assertions.assertSame(newer, policy.choose(new Choice(Choice.Kind.ARTIFACT, "quarkus-http", null, "artifacts"),
+                List.of(older, newer), Artifact::getIdentifier));
+    }
+
+    @Test
+    public void testAutomaticChoiceFailsWhenAmbiguous() {
+        SelectionPolicy policy = SelectionPolicy.create(true, null);
+        //reported by the import command as a message, rather than a stack trace
+        var e = Assertions.assertThrows(Import.ImportException.class, () -> policy.choose(new Choice(Choice.Kind.TAG, REPO, "4.1.7", "tags"),
+                List.of("refs/tags/4.1.7-CR1", "refs/tags/4.1.7-CR2"), Function.identity()));
+        Assertions.assertEquals("Could not choose automatically for " + REPO + ", add a rule for one of:\n"
+                + "  refs/tags/4.1.7-CR1\n"
+                + "  refs/tags/4.1.7-CR2", e.getMessage());
+    }
+
+    @Test
+    public void testInvalidRulesFile() throws Exception {
+        Path rules = Files.createTempFile("rules", ".txt");
+        try {
+            Files.writeString(rules, "release .* 4\\.1\\.x\n");
+            var e = Assertions.assertThrows(Import.ImportException.class, () -> SelectionPolicy.create(true, rules));
+            Assertions.assertTrue(e.getMessage().startsWith("Invalid rule 'release .* 4\\.1\\.x' in " + rules), e.getMessage());
+        } finally {
+            Files.deleteIfExists(rules);
+        }
+        //a rules file that does not exist
+        Assertions.assertThrows(Import.ImportException.class, () -> SelectionPolicy.create(true, rules));
+    }
+
+    @Test
+    public void testRules() throws Exception {
+        Path rules = Files.createTempFile("rules", ".txt");
+        try {
+            Files.writeString(rules, "# pick the maintenance branch\n"
+                    + "branch .*quarkus-http.* 4\\.1\\.x\n"
+                    + "tag    .*               .*\\.Final\n");
+            SelectionPolicy policy = SelectionPolicy.create(false, rules);
+            Assertions.assertEquals("refs/heads/4.1.x", policy.choose(new Choice(Choice.Kind.BRANCH, REPO, "4.1.7", "branches"),
+                    List.of("refs/heads/main", "refs/heads/4.1.x", "refs/heads/4.2.x"), Function.identity()));
+            Assertions.assertEquals("refs/tags/1.0.Final", policy.choose(new Choice(Choice.Kind.TAG, REPO, "1.0", "tags"),
+                    List.of("refs/tags/1.0.CR1", "refs/tags/1.0.Final"), Function.identity()));
+        } finally {
+            Files.deleteIfExists(rules);
+        }
+    }
+
+    private static Artifact artifact(String id, Instant startTime) {
+        return Artifact.builder()
+                .id(id)
+                .identifier("io.quarkus.http:quarkus-http-core:pom:4.1.7.redhat-0000" + id)
+                .build(Build.builder().id(id).startTime(startTime).build())
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TagResolverTest {
+
+    @Test
+    public void testAnnotatedAndLightweightTags() throws Exception {
+        Path dir = Files.createTempDirectory("tag-resolver");
+        try (Git git = Git.init().setDirectory(dir.toFile()).call()) {
+            RevCommit first = git.commit().setMessage("first").setAllowEmpty(true).call();
+            git.tag().setName("1.0.0").setAnnotated(true).setMessage("1.0.0").call();
+            RevCommit second = git.commit().setMessage("second").setAllowEmpty(true).call();
+            git.tag().setName("1.1.0").setAnnotated(false).call();
+
+            //local tags, which are not peeled yet
+            List<Ref> local = git.tagList().call();
+            Map<String, ObjectId> expected = Map.of("refs/tags/1.0.0", first, "refs/tags/1.1.0", second);
+            Assertions.assertEquals(expected, TagResolver.resolve(git.getRepository(), local));
+            Assertions.assertEquals(expected, TagResolver.resolve(git.getRepository(), local, 1));
+
+            //tags listed from the remote, which peels the annotated ones
+            List<Ref> remote = new ArrayList<>(Git.lsRemoteRepository().setRemote(dir.toUri().toString()).setTags(true).call());
+            Assertions.assertEquals(expected, TagResolver.resolve(null, remote));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    @Test
+    public void testNearestTagsWithinWindow() throws Exception {
+        Path dir = Files.createTempDirectory("tag-resolver");
+        try (Git git = Git.init().setDirectory(dir.toFile()).call()) {
+            git.commit().setMessage("upstream").setAllowEmpty(true).call();
+            git.tag().setName("1.0.0").setAnnotated(true).setMessage("1.0.0").call();
+            git.commit().setMessage("alignment").setAllowEmpty(true).call();
+            RevCommit built = git.commit().setMessage("prepare release").setAllowEmpty(true).call();
+
+            Map<String, ObjectId> tagCommits = TagResolver.resolve(git.getRepository(), git.tagList().call());
+            Assertions.assertEquals(List.of("refs/tags/1.0.0"), TagResolver.nearestTags(git.getRepository(), built, tagCommits, 3));
+            Assertions.assertEquals(List.of(), TagResolver.nearestTags(git.getRepository(), built, tagCommits, 2));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.quarkus.pnc.importer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TrigramIndexTest {
+
+    static final String[] WORDS = { "quarkus", "http", "fs", "utils", "util", "vertx", "core", "netty", "smallrye", "config", "jgit" };
+
+    @Test
+    public void testTrigrams() {
+        Assertions.assertArrayEquals(new int[0], TrigramIndex.trigrams("ab".getBytes()));
+        //"aaaa" only has one distinct trigram
+        Assertions.assertArrayEquals(new int[] { 'a' << 16 | 'a' << 8 | 'a' }, TrigramIndex.trigrams("aaaa".getBytes()));
+    }
+
+    @Test
+    public void testSearchMatchesScan() throws Exception {
+        Random random = new Random(42);
+        List<ArtifactCatalog.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            String name = WORDS[random.nextInt(WORDS.length)] + "-" + WORDS[random.nextInt(WORDS.length)];
+            String identifier = "io.quarkus:" + name + ":pom:1." + random.nextInt(30) + ".0.redhat-0000" + random.nextInt(10);
+            entries.add(new ArtifactCatalog.Entry(Integer.toString(i), identifier, "B" + i, null, null, null,
+                    Instant.ofEpochSecond(1600000000L + random.nextInt(100000000)), true));
+        }
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            ArtifactCatalog.write(file, entries, null);
+            ArtifactCatalog catalog = ArtifactCatalog.open(file);
+            for (String fragment : List.of("fs-util", "fs-utils", "http-core", "vertx-vertx", "1.2", "x", "redhat-00003", "missing", ":pom:1.29.0")) {
+                for (int max : new int[] { 1, 10, Integer.MAX_VALUE }) {
+                    int[] expected = new int[Math.min(max, catalog.size())];
+                    int count = 0;
+                    for (int i = 0; i < catalog.size() && count < expected.length; ++i) {
+                        if (catalog.identifier(i).contains(fragment)) {
+                            expected[count++] = i;
+                        }
+                    }
+                    Assertions.assertArrayEquals(Arrays.copyOf(expected, count), catalog.find(fragment, max), fragment + " " + max);
+                }
+            }
+            //newest build first
+            int[] found = catalog.find("quarkus", Integer.MAX_VALUE);
+            Assertions.assertEquals(5000, found.length);
+            for (int i = 1; i < found.length; ++i) {
+                Assertions.assertFalse(catalog.startTime(found[i]).isAfter(catalog.startTime(found[i - 1])));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
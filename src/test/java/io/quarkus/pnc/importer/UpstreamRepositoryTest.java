@@ -0,0 +1,55 @@
+package io.quarkus.pnc.importer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class UpstreamRepositoryTest {
+
+    @Test
+    public void testSeveralBuildsReuseTheRepository() throws Exception {
+        Path dir = Files.createTempDirectory("upstream");
+        try (Git git = Git.init().setInitialBranch("main").setDirectory(dir.toFile()).call();
+                var upstream = UpstreamRepository.temporary(dir.toUri().toString(), false)) {
+            git.commit().setMessage("first").setAllowEmpty(true).call();
+            git.tag().setName("1.0.0").setAnnotated(false).call();
+            git.commit().setMessage("second").setAllowEmpty(true).call();
+            git.tag().setName("1.1.0").setAnnotated(false).call();
+
+            List<Ref> tags = upstream.tags();
+            Assertions.assertEquals(List.of("refs/tags/1.0.0", "refs/tags/1.1.0"), names(tags));
+            Ref first = tag(tags, "refs/tags/1.0.0");
+            //only the tag is fetched, the branches are fetched once they are needed
+            Git fetched = upstream.fetch(first);
+            Assertions.assertEquals(List.of(), names(fetched.branchList().call()));
+            Assertions.assertEquals(List.of("refs/heads/main"), names(upstream.branches()));
+
+            //changes made upstream after the first build are not seen by the next ones, nothing is listed or fetched again
+            git.branchCreate().setName("1.1").call();
+            git.tagDelete().setTags("1.0.0").call();
+            git.tag().setName("1.2.0").setAnnotated(false).call();
+            Assertions.assertEquals(List.of("refs/tags/1.0.0", "refs/tags/1.1.0"), names(upstream.tags()));
+            upstream.fetch(first);
+            Git local = upstream.fetch(tag(tags, "refs/tags/1.1.0"));
+            Assertions.assertNotNull(local.getRepository().exactRef("refs/tags/1.1.0"));
+            Assertions.assertEquals(List.of("refs/heads/main"), names(upstream.branches()));
+        } finally {
+            FileUtils.delete(dir.toFile(), FileUtils.RECURSIVE);
+        }
+    }
+
+    private static Ref tag(List<Ref> tags, String name) {
+        return tags.stream().filter(t -> t.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static List<String> names(List<Ref> refs) {
+        return refs.stream().map(Ref::getName).sorted().collect(Collectors.toList());
+    }
+}